@@ -0,0 +1,131 @@
+package com.springboot.blog.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Value codec shared by every redis cache. A value is stored as a 3 byte header followed by the payload:
+ * <pre>
+ *   [magic 0xCB] [format version] [flags] [payload]
+ * </pre>
+ * Version 1 payloads are compact (never indented) json carrying the class of every non-final value,
+ * so cached dtos & collections of dtos come back with their own types instead of maps.
+ * Payloads of {@code compressThreshold} bytes or more are deflated, which is where a post content
+ * of up to 100k characters ends up. Values that do not start with the header (older json or jdk
+ * serialized entries) or carry an unknown version are read as a cache miss & get overwritten.
+ */
+public class CacheValueCodec implements RedisSerializer<Object> {
+
+    private static final byte MAGIC = (byte) 0xCB;
+    private static final byte VERSION_1 = 1;
+    private static final byte FLAG_DEFLATED = 1;
+    private static final int HEADER_LENGTH = 3;
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheValueCodec.class);
+
+    private final ObjectMapper objectMapper;
+    private final int compressThreshold;
+
+    public CacheValueCodec(ObjectMapper objectMapper, int compressThreshold) {
+        // only application types & the jdk collections/dates they are made of may be instantiated from the cache
+        BasicPolymorphicTypeValidator typeValidator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("com.springboot.blog.")
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.lang.")
+                .build();
+        this.objectMapper = objectMapper.copy()
+                .disable(SerializationFeature.INDENT_OUTPUT)
+                .activateDefaultTyping(typeValidator, ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(value);
+            byte flags = 0;
+            if (payload.length >= compressThreshold) {
+                payload = deflate(payload);
+                flags |= FLAG_DEFLATED;
+            }
+            byte[] encoded = new byte[HEADER_LENGTH + payload.length];
+            encoded[0] = MAGIC;
+            encoded[1] = VERSION_1;
+            encoded[2] = flags;
+            System.arraycopy(payload, 0, encoded, HEADER_LENGTH, payload.length);
+            return encoded;
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode cache value of type " + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC || bytes[1] != VERSION_1) {
+            LOGGER.debug("ignoring cache value written in another format, {} bytes", bytes.length);
+            return null;
+        }
+        try {
+            byte[] payload = Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+            if ((bytes[2] & FLAG_DEFLATED) != 0) {
+                payload = inflate(payload);
+            }
+            return objectMapper.readValue(payload, Object.class);
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("Could not decode cache value", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(input.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("truncated cache value");
+                }
+                output.write(buffer, 0, inflated);
+            }
+            return output.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
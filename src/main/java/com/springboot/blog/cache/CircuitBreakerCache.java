@@ -0,0 +1,151 @@
+package com.springboot.blog.cache;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Fail-open guard around a remote cache. Every call goes through the circuit breaker; a failed,
+ * slow or rejected (open circuit) read is a miss and a failed write is skipped, so an unavailable
+ * redis costs a database read instead of an error. Keys whose put or evict did not reach redis are
+ * remembered and evicted once redis is back, otherwise the values written before the outage would
+ * be served until their ttl runs out; past {@code maxMissedWrites} keys the whole cache is cleared.
+ */
+public class CircuitBreakerCache implements Cache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreakerCache.class);
+
+    private final Cache remoteCache;
+    private final CircuitBreaker circuitBreaker;
+    private final int maxMissedWrites;
+    private final Set<Object> missedWrites = ConcurrentHashMap.newKeySet();
+    private volatile boolean clearOnRecovery;
+
+    public CircuitBreakerCache(Cache remoteCache, CircuitBreaker circuitBreaker, int maxMissedWrites) {
+        this.remoteCache = remoteCache;
+        this.circuitBreaker = circuitBreaker;
+        this.maxMissedWrites = maxMissedWrites;
+    }
+
+    @Override
+    public String getName() {
+        return remoteCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remoteCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return read(() -> remoteCache.get(key), key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return read(() -> remoteCache.get(key, type), key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cachedValue = get(key);
+        if (cachedValue != null) {
+            return (T) cachedValue.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        write(() -> remoteCache.put(key, value), key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper[] existingValue = new ValueWrapper[1];
+        write(() -> existingValue[0] = remoteCache.putIfAbsent(key, value), key);
+        return existingValue[0];
+    }
+
+    @Override
+    public void evict(Object key) {
+        write(() -> remoteCache.evict(key), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean[] evicted = new boolean[1];
+        write(() -> evicted[0] = remoteCache.evictIfPresent(key), key);
+        return evicted[0];
+    }
+
+    @Override
+    public void clear() {
+        try {
+            circuitBreaker.executeRunnable(remoteCache::clear);
+        } catch (RuntimeException e) {
+            clearOnRecovery = true;
+            LOGGER.warn("cache {} could not be cleared, it will be once redis is back: {}", getName(), e.toString());
+        }
+    }
+
+    /** Evicts what was written while redis was unreachable, called when the circuit closes again. */
+    public void replayMissedWrites() {
+        if (clearOnRecovery) {
+            clearOnRecovery = false;
+            missedWrites.clear();
+            clear();
+            return;
+        }
+        for (Object key : missedWrites) {
+            missedWrites.remove(key);
+            evict(key);
+        }
+    }
+
+    public int missedWriteCount() {
+        return clearOnRecovery ? -1 : missedWrites.size();
+    }
+
+    private <T> T read(Supplier<T> call, Object key) {
+        try {
+            return circuitBreaker.executeSupplier(call);
+        } catch (CallNotPermittedException e) {
+            return null;
+        } catch (RuntimeException e) {
+            LOGGER.warn("cache {} read of {} failed, treated as a miss: {}", getName(), key, e.toString());
+            return null;
+        }
+    }
+
+    private void write(Runnable call, Object key) {
+        try {
+            circuitBreaker.executeRunnable(call);
+        } catch (RuntimeException e) {
+            if (!(e instanceof CallNotPermittedException)) {
+                LOGGER.warn("cache {} write of {} failed, skipped: {}", getName(), key, e.toString());
+            }
+            if (missedWrites.size() < maxMissedWrites) {
+                missedWrites.add(key);
+            } else {
+                clearOnRecovery = true;
+            }
+        }
+    }
+}
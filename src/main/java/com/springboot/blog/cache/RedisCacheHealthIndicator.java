@@ -0,0 +1,37 @@
+package com.springboot.blog.cache;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+
+/**
+ * Reports the redis cache circuit under {@code /actuator/health}. An open circuit does not take the
+ * application down, the caches are bypassed, so it is reported as DEGRADED instead of DOWN.
+ */
+public class RedisCacheHealthIndicator implements HealthIndicator {
+
+    private static final Status DEGRADED = new Status("DEGRADED", "caches are bypassed, reads go to the database");
+
+    private final TwoLevelCacheManager cacheManager;
+
+    public RedisCacheHealthIndicator(TwoLevelCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public Health health() {
+        CircuitBreaker circuitBreaker = cacheManager.getCircuitBreaker();
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        CircuitBreaker.State state = circuitBreaker.getState();
+        Health.Builder builder = state == CircuitBreaker.State.CLOSED ? Health.up() : Health.status(DEGRADED);
+        return builder
+                .withDetail("circuitState", state)
+                .withDetail("failureRate", metrics.getFailureRate())
+                .withDetail("slowCallRate", metrics.getSlowCallRate())
+                .withDetail("bufferedCalls", metrics.getNumberOfBufferedCalls())
+                .withDetail("notPermittedCalls", metrics.getNumberOfNotPermittedCalls())
+                .withDetail("missedWrites", cacheManager.missedWriteCounts())
+                .build();
+    }
+}
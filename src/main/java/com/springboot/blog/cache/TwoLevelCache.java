@@ -0,0 +1,243 @@
+package com.springboot.blog.cache;
+
+import com.springboot.blog.exception.BlogAPIException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.http.HttpStatus;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache backed by a size-bounded in-process LRU (L1) in front of a shared cache (L2, redis).
+ * Reads are answered from L1 when possible, misses fall through to L2 & are kept locally.
+ * Writes go to L2 first, and every change is announced through the owning
+ * {@link TwoLevelCacheManager} so the other nodes drop their local copy of the entry.
+ * Local entries also expire after a short ttl, which bounds staleness if an invalidation is lost.
+ */
+public class TwoLevelCache implements Cache {
+
+    private final CircuitBreakerCache remoteCache;
+    private final TwoLevelCacheManager cacheManager;
+    private final long localTtlMillis;
+    private final long loadTimeoutMillis;
+    private final ConcurrentMap<String, InFlightLoad> inFlightLoads = new ConcurrentHashMap<>();
+    private final Map<String, LocalEntry> localEntries;
+    // bumped on every invalidation, a value read from L2 before a concurrent evict is not kept locally
+    private final AtomicLong generation = new AtomicLong();
+
+    public TwoLevelCache(CircuitBreakerCache remoteCache, TwoLevelCacheManager cacheManager, int localMaxEntries,
+                         long localTtlMillis, long loadTimeoutMillis) {
+        this.remoteCache = remoteCache;
+        this.cacheManager = cacheManager;
+        this.localTtlMillis = localTtlMillis;
+        this.loadTimeoutMillis = loadTimeoutMillis;
+        this.localEntries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LocalEntry> eldest) {
+                return size() > localMaxEntries;
+            }
+        });
+    }
+
+    @Override
+    public String getName() {
+        return remoteCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remoteCache.getNativeCache();
+    }
+
+    CircuitBreakerCache getRemoteCache() {
+        return remoteCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper localValue = getLocal(localKey);
+        if (localValue != null) {
+            return localValue;
+        }
+        long readGeneration = generation.get();
+        ValueWrapper remoteValue = remoteCache.get(key);
+        if (remoteValue != null) {
+            putLocal(localKey, remoteValue.get(), readGeneration);
+        }
+        return remoteValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        Object storedValue = value != null ? value.get() : null;
+        if (storedValue != null && type != null && !type.isInstance(storedValue)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + storedValue);
+        }
+        return (T) storedValue;
+    }
+
+    /**
+     * Used by {@code @Cacheable(sync = true)}. Concurrent misses on the same key are coalesced: the first
+     * caller loads the value (from redis, or through the loader) while the others wait for its result,
+     * for at most the load timeout. A load running longer than that no longer holds the key, the next
+     * caller starts a fresh one. Redis' own synchronized loader is bypassed, it would serialize misses
+     * on every key of the cache.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper localValue = getLocal(localKey);
+        if (localValue != null) {
+            return (T) localValue.get();
+        }
+        InFlightLoad load = new InFlightLoad(new CompletableFuture<>(), System.currentTimeMillis());
+        InFlightLoad runningLoad = inFlightLoads.compute(localKey, (k, running) ->
+                running == null || running.isOverdue(loadTimeoutMillis) ? load : running);
+        if (runningLoad != load) {
+            return (T) awaitLoad(runningLoad);
+        }
+        try {
+            T value = loadThrough(key, localKey, valueLoader);
+            load.result().complete(value);
+            return value;
+        } catch (RuntimeException | Error e) { // waiters must never be left for the timeout
+            load.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(localKey, load);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T loadThrough(Object key, String localKey, Callable<T> valueLoader) {
+        long readGeneration = generation.get();
+        ValueWrapper remoteValue = remoteCache.get(key);
+        if (remoteValue != null) {
+            putLocal(localKey, remoteValue.get(), readGeneration);
+            return (T) remoteValue.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value != null) { // some caches refuse null values, those are simply not cached
+            remoteCache.put(key, value);
+        }
+        putLocal(localKey, value, readGeneration);
+        return value;
+    }
+
+    private Object awaitLoad(InFlightLoad runningLoad) {
+        long remainingMillis = runningLoad.startedAt() + loadTimeoutMillis - System.currentTimeMillis();
+        try {
+            return runningLoad.result().get(Math.max(remainingMillis, 1), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // same outcome as the caller that ran the load
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) e.getCause();
+        } catch (TimeoutException e) {
+            throw new BlogAPIException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Timed out waiting for " + getName() + " to be loaded, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BlogAPIException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Interrupted while waiting for " + getName() + " to be loaded");
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        invalidateLocal(key);
+        putLocal(localKey(key), value, generation.get());
+        cacheManager.publishEvict(getName(), localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existingValue = remoteCache.putIfAbsent(key, value);
+        invalidateLocal(key);
+        cacheManager.publishEvict(getName(), localKey(key));
+        return existingValue;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        invalidateLocal(key);
+        cacheManager.publishEvict(getName(), localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = remoteCache.evictIfPresent(key);
+        invalidateLocal(key);
+        cacheManager.publishEvict(getName(), localKey(key));
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        clearLocal();
+        cacheManager.publishClear(getName());
+    }
+
+    /** Drops the local copy of an entry, called for changes made here or announced by another node. */
+    public void invalidateLocal(Object key) {
+        generation.incrementAndGet();
+        localEntries.remove(localKey(key));
+    }
+
+    public void clearLocal() {
+        generation.incrementAndGet();
+        localEntries.clear();
+    }
+
+    private ValueWrapper getLocal(String localKey) {
+        LocalEntry entry = localEntries.get(localKey);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            localEntries.remove(localKey);
+            return null;
+        }
+        return entry.value();
+    }
+
+    private void putLocal(String localKey, Object value, long readGeneration) {
+        synchronized (localEntries) {
+            if (generation.get() == readGeneration) {
+                localEntries.put(localKey, new LocalEntry(new SimpleValueWrapper(value),
+                        System.currentTimeMillis() + localTtlMillis));
+            }
+        }
+    }
+
+    // redis keys are strings, so keys are compared the same way locally & in invalidation messages
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private record LocalEntry(ValueWrapper value, long expiresAt) {
+    }
+
+    private record InFlightLoad(CompletableFuture<Object> result, long startedAt) {
+        boolean isOverdue(long loadTimeoutMillis) {
+            return System.currentTimeMillis() - startedAt >= loadTimeoutMillis;
+        }
+    }
+}
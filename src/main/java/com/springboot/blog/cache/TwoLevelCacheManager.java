@@ -0,0 +1,149 @@
+package com.springboot.blog.cache;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps every cache of the remote (redis) cache manager in a {@link TwoLevelCache}.
+ * Evictions are published on a redis channel as {@code nodeId|cacheName|key} ({@code key} left
+ * empty for a clear); every node listens on it and drops its own local copy, messages sent by
+ * this node are ignored since the local copy was already dropped when the change was made.
+ * Redis is only reached through the circuit breaker: while it is open caches fall back to the local
+ * copy & the database, and once it closes again the writes redis missed are replayed and the local
+ * copies (which may have missed invalidations meanwhile) are dropped.
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private static final String SEPARATOR = "|";
+    private static final Logger LOGGER = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final int maxMissedWrites;
+    private final String invalidationChannel;
+    private final int localMaxEntries;
+    private final long localTtlMillis;
+    private final long loadTimeoutMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+                                CircuitBreaker circuitBreaker, int maxMissedWrites, String invalidationChannel,
+                                int localMaxEntries, long localTtlMillis, long loadTimeoutMillis) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.maxMissedWrites = maxMissedWrites;
+        this.invalidationChannel = invalidationChannel;
+        this.localMaxEntries = localMaxEntries;
+        this.localTtlMillis = localTtlMillis;
+        this.loadTimeoutMillis = loadTimeoutMillis;
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            if (event.getStateTransition().getToState() == CircuitBreaker.State.CLOSED) {
+                onRedisRecovered();
+            }
+        });
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remoteCacheManager.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> new TwoLevelCache(
+                new CircuitBreakerCache(remoteCache, circuitBreaker, maxMissedWrites),
+                this, localMaxEntries, localTtlMillis, loadTimeoutMillis));
+    }
+
+    /**
+     * The redis tier of a cache alone: guarded by the circuit breaker like the full cache, but nothing is
+     * kept locally and no invalidation is published. Meant for callers with their own local tier whose
+     * values never change once written, e.g. content addressed keys.
+     */
+    public Cache getRemoteCache(String name) {
+        TwoLevelCache cache = (TwoLevelCache) getCache(name);
+        return cache != null ? cache.getRemoteCache() : null;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /** Number of keys per cache whose write did not reach redis yet, -1 when the cache will be cleared instead. */
+    public Map<String, Integer> missedWriteCounts() {
+        Map<String, Integer> missedWriteCounts = new TreeMap<>();
+        caches.forEach((name, cache) -> missedWriteCounts.put(name, cache.getRemoteCache().missedWriteCount()));
+        return missedWriteCounts;
+    }
+
+    private void onRedisRecovered() {
+        LOGGER.info("redis is reachable again, replaying missed cache writes");
+        for (TwoLevelCache cache : caches.values()) {
+            cache.getRemoteCache().replayMissedWrites();
+            cache.clearLocal();
+        }
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    void publishEvict(String cacheName, String key) {
+        publish(nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+    }
+
+    void publishClear(String cacheName) {
+        publish(nodeId + SEPARATOR + cacheName + SEPARATOR);
+    }
+
+    private void publish(String message) {
+        try {
+            circuitBreaker.executeRunnable(() -> redisTemplate.convertAndSend(invalidationChannel, message));
+        } catch (CallNotPermittedException e) {
+            // redis is down, every node drops its local copies once it is back
+        } catch (RuntimeException e) {
+            // other nodes fall back on the local ttl, the write itself already reached redis
+            LOGGER.warn("could not publish cache invalidation {}: {}", message, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return; // nothing held locally for this cache yet
+        }
+        if (parts[2].isEmpty()) {
+            cache.clearLocal();
+        } else {
+            cache.invalidateLocal(parts[2]);
+        }
+    }
+}
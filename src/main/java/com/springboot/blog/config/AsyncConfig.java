@@ -1,12 +1,17 @@
 package com.springboot.blog.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 @Configuration
 @EnableAsync
 public class AsyncConfig {
@@ -16,6 +21,46 @@ public class AsyncConfig {
     private int maxPoolSize;
     @Value("${task.executor.queueCapacity}")
     private int queueCapacity;
+    @Value("${reputation.executor.corePoolSize:4}")
+    private int reputationCorePoolSize;
+    @Value("${reputation.executor.maxPoolSize:8}")
+    private int reputationMaxPoolSize;
+    @Value("${reputation.executor.queueCapacity:200}")
+    private int reputationQueueCapacity;
+    @Value("${moderation.executor.corePoolSize:2}")
+    private int moderationCorePoolSize;
+    @Value("${moderation.executor.maxPoolSize:4}")
+    private int moderationMaxPoolSize;
+    @Value("${moderation.executor.queueCapacity:200}")
+    private int moderationQueueCapacity;
+    @Value("${sentiment.batch.executor.threads:0}")
+    private int sentimentBatchThreads;
+    @Value("${sentiment.batch.executor.queueCapacity:1000}")
+    private int sentimentBatchQueueCapacity;
+    @Value("${feed.refresh.executor.corePoolSize:2}")
+    private int feedRefreshCorePoolSize;
+    @Value("${feed.refresh.executor.maxPoolSize:4}")
+    private int feedRefreshMaxPoolSize;
+    @Value("${feed.refresh.executor.queueCapacity:100}")
+    private int feedRefreshQueueCapacity;
+    @Value("${spring.task.scheduling.pool.size:8}")
+    private int schedulingPoolSize;
+
+    /**
+     * Runs the @Scheduled jobs. Spring's default scheduler has a single thread, so the nightly reputation
+     * reconcile or a trending fan-out would hold back the engagement flush (and grow the window of
+     * unflushed counters) for as long as they run; one thread per job keeps them independent.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(MeterRegistry meterRegistry){
+        ThreadPoolTaskScheduler taskScheduler=new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(schedulingPoolSize);
+        taskScheduler.setThreadNamePrefix("ScheduledTaskThread-");
+        taskScheduler.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, taskScheduler.getScheduledExecutor(),
+                "taskScheduler", Tags.empty());
+        return taskScheduler;
+    }
 
     @Bean("asyncTaskExecutor")
     public Executor asyncTaskExecutor(){
@@ -27,4 +72,80 @@ public class AsyncConfig {
         taskExecutor.initialize();;
         return taskExecutor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Bounded pool for reputation reads/rebuilds, which do blocking JDBC and must not
+     * run on the common ForkJoinPool. When saturated the caller runs the task itself.
+     * Pool size, queue depth & task timings are published through actuator metrics.
+     */
+    @Bean("reputationTaskExecutor")
+    public Executor reputationTaskExecutor(MeterRegistry meterRegistry){
+        ThreadPoolTaskExecutor taskExecutor=new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(reputationCorePoolSize);
+        taskExecutor.setMaxPoolSize(reputationMaxPoolSize);
+        taskExecutor.setQueueCapacity(reputationQueueCapacity);
+        taskExecutor.setThreadNamePrefix("ReputationThread-");
+        taskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        taskExecutor.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, taskExecutor.getThreadPoolExecutor(),
+                "reputationTaskExecutor", Tags.empty());
+        return taskExecutor;
+    }
+
+    /**
+     * Bounded pool for background feed refreshes. When saturated submissions are rejected
+     * rather than run by the caller, the reader is served the stale feed meanwhile.
+     */
+    @Bean("feedRefreshExecutor")
+    public Executor feedRefreshExecutor(MeterRegistry meterRegistry){
+        ThreadPoolTaskExecutor taskExecutor=new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(feedRefreshCorePoolSize);
+        taskExecutor.setMaxPoolSize(feedRefreshMaxPoolSize);
+        taskExecutor.setQueueCapacity(feedRefreshQueueCapacity);
+        taskExecutor.setThreadNamePrefix("FeedRefreshThread-");
+        taskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        taskExecutor.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, taskExecutor.getThreadPoolExecutor(),
+                "feedRefreshExecutor", Tags.empty());
+        return taskExecutor;
+    }
+
+    /**
+     * Bounded pool for the sentiment & moderation of new posts, constituency parsing is CPU bound
+     * so the pool stays small. When saturated new tasks are rejected, the posts stay Pending
+     * for the moderation sweep instead of being moderated on the request thread.
+     */
+    @Bean("moderationTaskExecutor")
+    public Executor moderationTaskExecutor(MeterRegistry meterRegistry){
+        ThreadPoolTaskExecutor taskExecutor=new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(moderationCorePoolSize);
+        taskExecutor.setMaxPoolSize(moderationMaxPoolSize);
+        taskExecutor.setQueueCapacity(moderationQueueCapacity);
+        taskExecutor.setThreadNamePrefix("ModerationThread-");
+        taskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        taskExecutor.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, taskExecutor.getThreadPoolExecutor(),
+                "moderationTaskExecutor", Tags.empty());
+        return taskExecutor;
+    }
+
+    /**
+     * Dedicated pool for batch sentiment annotation, sized to the cores by default since parsing is CPU bound.
+     * Shared by all batches so concurrent batches cannot oversubscribe the CPU; when the queue is full the
+     * submitting thread annotates the text itself.
+     */
+    @Bean("sentimentBatchExecutor")
+    public Executor sentimentBatchExecutor(MeterRegistry meterRegistry){
+        int threads = sentimentBatchThreads > 0 ? sentimentBatchThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor taskExecutor=new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(threads);
+        taskExecutor.setMaxPoolSize(threads);
+        taskExecutor.setQueueCapacity(sentimentBatchQueueCapacity);
+        taskExecutor.setThreadNamePrefix("SentimentBatchThread-");
+        taskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        taskExecutor.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, taskExecutor.getThreadPoolExecutor(),
+                "sentimentBatchExecutor", Tags.empty());
+        return taskExecutor;
+    }
+}
@@ -11,7 +11,6 @@ public class JacksonConfig {
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.enable(SerializationFeature.INDENT_OUTPUT); // For pretty-printing JSON
         // Set the context class loader for the current thread
         Thread.currentThread().setContextClassLoader(objectMapper.getClass().getClassLoader());
         return objectMapper;
@@ -7,11 +7,26 @@ import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import com.springboot.blog.cache.CacheValueCodec;
+import com.springboot.blog.cache.RedisCacheHealthIndicator;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.serializer.SerializationException;
+import redis.clients.jedis.Jedis;
+import com.springboot.blog.cache.TwoLevelCacheManager;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
 
 import java.time.Duration;
@@ -19,7 +34,7 @@ import java.util.HashMap;
 import java.util.Map;
 @Configuration
 @EnableRedisRepositories
-public class RedisConfig {
+public class RedisConfig implements CachingConfigurer {
 
     @Value("${redis.port}")
     private int redisPort;
@@ -33,41 +48,149 @@ public class RedisConfig {
     private int postsCacheTtlHrs;
     @Value("${redis.cache.comment.ttl}")
     private int commentsCacheTtlHrs;
+    @Value("${redis.cache.sentiment.ttl:168}")
+    private int sentimentCacheTtlHrs;
+    @Value("${redis.cache.local.max-entries:10000}")
+    private int localCacheMaxEntries;
+    @Value("${redis.cache.local.ttl-seconds:60}")
+    private int localCacheTtlSeconds;
+    @Value("${redis.cache.invalidation-channel:cache:invalidation}")
+    private String cacheInvalidationChannel;
+    @Value("${redis.cache.load-timeout-ms:5000}")
+    private long cacheLoadTimeoutMillis;
+    @Value("${redis.cache.compress-threshold-bytes:1024}")
+    private int cacheCompressThreshold;
+    @Value("${redis.timeout.connect-ms:500}")
+    private long connectTimeoutMillis;
+    @Value("${redis.timeout.read-ms:250}")
+    private long readTimeoutMillis;
+    @Value("${redis.pool.max-total:64}")
+    private int poolMaxTotal;
+    @Value("${redis.pool.max-idle:32}")
+    private int poolMaxIdle;
+    @Value("${redis.pool.min-idle:8}")
+    private int poolMinIdle;
+    @Value("${redis.pool.max-wait-ms:200}")
+    private long poolMaxWaitMillis;
+    @Value("${redis.circuit.failure-rate-threshold:50}")
+    private float circuitFailureRateThreshold;
+    @Value("${redis.circuit.slow-call-ms:100}")
+    private long circuitSlowCallMillis;
+    @Value("${redis.circuit.open-state-ms:10000}")
+    private long circuitOpenStateMillis;
+    @Value("${redis.cache.max-missed-writes:10000}")
+    private int cacheMaxMissedWrites;
 
+    /**
+     * Pooled connections with short timeouts, a slow or unreachable redis fails a call
+     * within a few hundred milliseconds instead of holding the request thread.
+     */
     @Bean
     public JedisConnectionFactory connectionFactory() {
         RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration();
         configuration.setHostName(redisHostName);
         configuration.setPort(redisPort);
-        return new JedisConnectionFactory(configuration);
+
+        GenericObjectPoolConfig<Jedis> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal(poolMaxTotal);
+        poolConfig.setMaxIdle(poolMaxIdle);
+        poolConfig.setMinIdle(poolMinIdle);
+        poolConfig.setMaxWait(Duration.ofMillis(poolMaxWaitMillis));
+        JedisClientConfiguration clientConfiguration = JedisClientConfiguration.builder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .readTimeout(Duration.ofMillis(readTimeoutMillis))
+                .usePooling().poolConfig(poolConfig)
+                .build();
+        return new JedisConnectionFactory(configuration, clientConfiguration);
     }
 
+    /**
+     * Opens when half of the last 50 cache calls to redis failed or took longer than the slow call threshold,
+     * serialization errors are not a sign of an unhealthy redis and are not counted.
+     */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper) {
-        Jackson2JsonRedisSerializer<Object> jsonSerializer = new Jackson2JsonRedisSerializer<>(Object.class);
-        jsonSerializer.setObjectMapper(objectMapper);
+    public CircuitBreaker redisCacheCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry) {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .slidingWindowSize(50)
+                .minimumNumberOfCalls(20)
+                .failureRateThreshold(circuitFailureRateThreshold)
+                .slowCallRateThreshold(circuitFailureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(circuitSlowCallMillis))
+                .waitDurationInOpenState(Duration.ofMillis(circuitOpenStateMillis))
+                .permittedNumberOfCallsInHalfOpenState(5)
+                .ignoreExceptions(SerializationException.class)
+                .build();
+        return circuitBreakerRegistry.circuitBreaker("redisCache", circuitBreakerConfig);
+    }
 
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper) {
+        // every cache, including the ones with their own ttl, stores values through the same codec
         RedisCacheConfiguration defaultCacheConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofHours(defaultCacheTtl))
                 .serializeKeysWith(SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(SerializationPair.fromSerializer(jsonSerializer));
+                .serializeValuesWith(SerializationPair.fromSerializer(
+                        new CacheValueCodec(objectMapper, cacheCompressThreshold)));
 
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
         // set custom TTL for each collection and disallow caching null values
-        cacheConfigurations.put("posts", RedisCacheConfiguration.defaultCacheConfig()
+        cacheConfigurations.put("posts", defaultCacheConfig
                 .entryTtl(Duration.ofHours(postsCacheTtlHrs))
                 .disableCachingNullValues()
         );
-        cacheConfigurations.put("comment", RedisCacheConfiguration.defaultCacheConfig()
+        cacheConfigurations.put("comment", defaultCacheConfig
                 .entryTtl(Duration.ofHours(commentsCacheTtlHrs))
                 .disableCachingNullValues()
         );
-        cacheConfigurations.put("userRecommendedPosts", RedisCacheConfiguration.defaultCacheConfig()
+        cacheConfigurations.put("userRecommendedPosts", defaultCacheConfig
                 .entryTtl(Duration.ofHours(feedCacheTtlHrs))
                 .disableCachingNullValues()
         );
+        // keyed by content hash & model version, an entry never goes stale, the ttl only bounds memory
+        cacheConfigurations.put("sentiment", defaultCacheConfig
+                .entryTtl(Duration.ofHours(sentimentCacheTtlHrs))
+                .disableCachingNullValues()
+        );
 
-        return RedisCacheManager.builder(connectionFactory).cacheDefaults(defaultCacheConfig)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory).cacheDefaults(defaultCacheConfig)
                 .withInitialCacheConfigurations(cacheConfigurations).build();
+        redisCacheManager.afterPropertiesSet(); // not a bean of its own, initialize the configured caches here
+        return redisCacheManager;
+    }
+
+    /**
+     * Local near cache per cache name in front of redis, hot entries are served without a network round trip.
+     * Evictions made on any node reach the others through the invalidation channel,
+     * concurrent misses of a key ({@code sync = true}) share a single load.
+     */
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             CircuitBreaker redisCacheCircuitBreaker) {
+        return new TwoLevelCacheManager(redisCacheManager(connectionFactory, objectMapper), stringRedisTemplate,
+                redisCacheCircuitBreaker, cacheMaxMissedWrites, cacheInvalidationChannel, localCacheMaxEntries, Duration.ofSeconds(localCacheTtlSeconds).toMillis(),
+                cacheLoadTimeoutMillis);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(cacheInvalidationChannel));
+        return container;
+    }
+
+    @Bean
+    public RedisCacheHealthIndicator redisCacheHealthIndicator(TwoLevelCacheManager cacheManager) {
+        return new RedisCacheHealthIndicator(cacheManager);
+    }
+
+    /**
+     * Last line of defence for cache failures that escape the circuit breaker:
+     * they are logged and the annotated method runs as if there was no cache.
+     */
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new LoggingCacheErrorHandler();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package com.springboot.blog.config;
+
+import com.springboot.blog.service.impl.SentimentAnalysisService;
+import com.springboot.blog.service.impl.SentimentAnalysisService.ModelState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.availability.ReadinessStateHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SentimentModelHealthConfig {
+
+    private static final Status WARMING = new Status("WARMING", "sentiment models are loading");
+
+    @Value("${sentiment.gate-readiness:true}")
+    private boolean gateReadiness;
+
+    /**
+     * Reported as {@code sentimentModel} under /actuator/health: WARMING while the models load, UP once
+     * loaded & DOWN if loading failed. In both non UP states sentiment is served degraded, not refused.
+     */
+    @Bean
+    public HealthIndicator sentimentModelHealthIndicator(SentimentAnalysisService sentimentAnalysisService) {
+        return () -> {
+            ModelState modelState = sentimentAnalysisService.getModelState();
+            Health.Builder builder = switch (modelState) {
+                case READY -> Health.up();
+                case WARMING -> Health.status(WARMING);
+                case FAILED -> Health.down();
+            };
+            return builder.withDetail("modelState", modelState)
+                    .withDetail("warmupMillis", sentimentAnalysisService.getWarmupMillis())
+                    .build();
+        };
+    }
+
+    /**
+     * Replaces boot's readiness indicator (/actuator/health/readiness) so an instance only reports ready
+     * once its models are warm, traffic keeps going to instances that can classify. A failed load does not
+     * hold readiness, the instance serves with degraded sentiment instead of never becoming ready.
+     */
+    @Bean
+    public ReadinessStateHealthIndicator readinessStateHealthIndicator(ApplicationAvailability availability,
+                                                                       SentimentAnalysisService sentimentAnalysisService) {
+        return new ReadinessStateHealthIndicator(availability) {
+            @Override
+            protected AvailabilityState getState(ApplicationAvailability applicationAvailability) {
+                if (gateReadiness && sentimentAnalysisService.getModelState() == ModelState.WARMING) {
+                    return ReadinessState.REFUSING_TRAFFIC;
+                }
+                return super.getState(applicationAvailability);
+            }
+        };
+    }
+}
@@ -1,13 +1,12 @@
 package com.springboot.blog.controller;
+import com.springboot.blog.annotations.CurrentUser;
 import com.springboot.blog.annotations.GetExecutionTime;
 import com.springboot.blog.exception.BlogAPIException;
-import com.springboot.blog.jwt.JwtTokenProvider;
+import com.springboot.blog.jwt.AuthenticatedUser;
 import com.springboot.blog.payload.CommentDto;
 import com.springboot.blog.payload.PostDto;
-import com.springboot.blog.payload.UserDTO;
 import com.springboot.blog.service.CommentService;
 import com.springboot.blog.service.PostService;
-import com.springboot.blog.service.UserService;
 import com.springboot.blog.utils.AppEnums.ErrorCode;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -27,9 +26,7 @@ import java.util.List;
 public class CommentController {
 
     private final PostService postService;
-    private final UserService userService;
     private final CommentService commentService;
-    private final JwtTokenProvider jwtTokenProvider;
 
     private static final Logger LOGGER =
             LoggerFactory.getLogger(CommentController.class);
@@ -37,27 +34,19 @@ public class CommentController {
     @GetExecutionTime
     @PostMapping("/posts/{postId}/comments")
     public ResponseEntity<CommentDto> createComment(@PathVariable(value = "postId") long postId,
-                                                    @Valid @RequestBody CommentDto commentDto, HttpServletRequest request) {
+                                                    @Valid @RequestBody CommentDto commentDto, @CurrentUser AuthenticatedUser currentUser,
+                                                    HttpServletRequest request) {
         LOGGER.info("CommentController.createComment id: {}", postId);
         if (!contentTypeValidator(request)) { // validate delivered content/payload
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "Unsupported media type", ErrorCode.UNSUPPORTED_MEDIA_TYPE);
         }
-        // extracting token form the headers
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        }
-        // extract username from token to check authorizations
-        String username = jwtTokenProvider.extractUsername(token);
-        LOGGER.info("extracted username from the token: {}", username);
         // If authorization fails we will throw an exception
-        if (!authorizedToComment(username, postId)) {
+        if (!authorizedToComment(currentUser.getId(), postId)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "You cannot comment on your own post", ErrorCode.CANNOT_INVOKE_ON_OWN);
         }
-        boolean sameEmailOnFile = userService.findUserByUsername(username).getEmail().equals(commentDto.getEmail());
+        boolean sameEmailOnFile = currentUser.getEmail().equals(commentDto.getEmail());
         if (!sameEmailOnFile) {
             throw new BlogAPIException("You cannot comment on behalf of someone else - choose your own email");
         } // attached comment body is validated by CommentValidationFilter before transacting
@@ -69,28 +58,19 @@ public class CommentController {
     @PutMapping("/posts/{postId}/comments/{id}")
     public ResponseEntity<CommentDto> updateComment(@PathVariable(value = "postId") Long postId,
                                                     @PathVariable(value = "id") Long commentId,
-                                                    @Valid @RequestBody CommentDto commentDto, HttpServletRequest request){
+                                                    @Valid @RequestBody CommentDto commentDto, @CurrentUser AuthenticatedUser currentUser,
+                                                    HttpServletRequest request){
         LOGGER.info("CommentController.updateComment postId: {}, commentId: {}", postId, commentId);
         if (!contentTypeValidator(request)) { // validate delivered content/payload
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "Unsupported media type", ErrorCode.UNSUPPORTED_MEDIA_TYPE);
         }
-        // extracting token form the headers
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        }
-        // extract username from token to check authorizations
-        String username = jwtTokenProvider.extractUsername(token);
-        LOGGER.info("extracted username from token: {}", username);
-        boolean sameEmailOnFile = userService
-                .findUserByUsername(username).getEmail().equals(commentDto.getEmail());
+        boolean sameEmailOnFile = currentUser.getEmail().equals(commentDto.getEmail());
         if (!sameEmailOnFile) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "You cannot on behalf of someone else", ErrorCode.CANNOT_BE_DIFF_USER);
         }
-        if (!authorizedToEdit(username, postId, commentId)) {
+        if (!authorizedToEdit(currentUser.getEmail(), postId, commentId)) {
             throw new BlogAPIException("You cannot edit comments that are not your own");
         }
         // attached comment body is validated by CommentValidationFilter before transacting
@@ -101,23 +81,15 @@ public class CommentController {
 
     @DeleteMapping("/posts/{postId}/comments/{id}")
     public ResponseEntity<String> deleteComment(@PathVariable(value = "postId") Long postId,
-                                                @PathVariable(value = "id") Long commentId, HttpServletRequest request){
+                                                @PathVariable(value = "id") Long commentId, @CurrentUser AuthenticatedUser currentUser,
+                                                HttpServletRequest request){
         LOGGER.info("CommentController.deleteComment postId: {}, commentId: {}", postId, commentId);
         if (!contentTypeValidator(request)) { // validate delivered content/payload
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "Unsupported media type", ErrorCode.UNSUPPORTED_MEDIA_TYPE);
         }
-        // extracting token form the headers
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        }
-        // extract username from token to check authorizations
-        String username = jwtTokenProvider.extractUsername(token);
-        LOGGER.info("extracted username from token: {}", username);
         // If authorization fails we will throw an exception
-        if (!authorizedToEdit(username, postId, commentId)) {
+        if (!authorizedToEdit(currentUser.getEmail(), postId, commentId)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "You cannot delete comments that are not your own", ErrorCode.CANNOT_BE_DIFF_USER);
         }
@@ -142,16 +114,12 @@ public class CommentController {
                 .body(commentService.getCommentById(postId, commentId)); // 39 ms
     }
 
-    private boolean authorizedToComment(String username, long postId) {
-        UserDTO commentPublisher = userService.findUserByUsername(username);
-        boolean sameUser = commentPublisher.getPosts()
-                .stream().anyMatch(postID -> postID == postId);
-
+    private boolean authorizedToComment(long userId, long postId) {
+        boolean sameUser = postService.getPublisherId(postId) == userId;
         return !sameUser;
     }
 
-    private boolean authorizedToEdit(String username, long postId, long commentId) {
-        String publisherEmail = userService.findUserByUsername(username).getEmail();
+    private boolean authorizedToEdit(String publisherEmail, long postId, long commentId) {
         PostDto targetPost = postService.getPostById(postId);
 
         // check if the commentId is linked to the publisher
@@ -1,14 +1,9 @@
 package com.springboot.blog.controller;
 
 import com.springboot.blog.annotations.GetExecutionTime;
-import com.springboot.blog.exception.BlogAPIException;
-import com.springboot.blog.jwt.JwtTokenProvider;
-import com.springboot.blog.payload.PostDto;
+import com.springboot.blog.payload.PostSummaryDto;
 import com.springboot.blog.service.NowTrendingService;
-import com.springboot.blog.utils.AppEnums.ErrorCode;
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -22,34 +17,24 @@ import java.util.List;
 @RequiredArgsConstructor
 public class NowTrendingController {
 
-    private final JwtTokenProvider jwtTokenProvider;
     private final NowTrendingService nowTrendingService;
 
     @GetExecutionTime
     @GetMapping("/daily/{NumOfPosts}")
-    public ResponseEntity<List<PostDto>> getDailyTrending(@PathVariable int NumOfPosts, HttpServletRequest request){
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        } return ResponseEntity.ok(nowTrendingService.getDailyTrending(NumOfPosts));
+    public ResponseEntity<List<PostSummaryDto>> getDailyTrending(@PathVariable int NumOfPosts){
+        // authenticated by the JWT filter before reaching the controller
+        return ResponseEntity.ok(nowTrendingService.getDailyTrending(NumOfPosts));
     }
     @GetExecutionTime
     @GetMapping("/weekly/{NumOfPosts}")
-    public ResponseEntity<List<PostDto>> getWeeklyTrending(@PathVariable int NumOfPosts, HttpServletRequest request){
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        } return ResponseEntity.ok(nowTrendingService.getWeeklyTrending(NumOfPosts));
+    public ResponseEntity<List<PostSummaryDto>> getWeeklyTrending(@PathVariable int NumOfPosts){
+        // authenticated by the JWT filter before reaching the controller
+        return ResponseEntity.ok(nowTrendingService.getWeeklyTrending(NumOfPosts));
     }
     @GetExecutionTime
     @GetMapping("/monthly/{NumOfPosts}")
-    public ResponseEntity<List<PostDto>> getMonthlyTrending(@PathVariable int NumOfPosts, HttpServletRequest request){
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        } return ResponseEntity.ok(nowTrendingService.getMonthlyTrending(NumOfPosts));
+    public ResponseEntity<List<PostSummaryDto>> getMonthlyTrending(@PathVariable int NumOfPosts){
+        // authenticated by the JWT filter before reaching the controller
+        return ResponseEntity.ok(nowTrendingService.getMonthlyTrending(NumOfPosts));
     }
 }
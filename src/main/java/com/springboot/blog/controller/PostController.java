@@ -1,13 +1,14 @@
 package com.springboot.blog.controller;
 
+import com.springboot.blog.annotations.CurrentUser;
 import com.springboot.blog.annotations.GetExecutionTime;
 import com.springboot.blog.exception.BlogAPIException;
-import com.springboot.blog.jwt.JwtTokenProvider;
+import com.springboot.blog.jwt.AuthenticatedUser;
 import com.springboot.blog.payload.PostDto;
 import com.springboot.blog.payload.PostResponse;
-import com.springboot.blog.payload.UserDTO;
+import com.springboot.blog.payload.PostSummaryDto;
+import com.springboot.blog.service.EngagementMembershipService;
 import com.springboot.blog.service.PostService;
-import com.springboot.blog.service.UserService;
 import com.springboot.blog.utils.AppEnums.AppConstants;
 import com.springboot.blog.utils.AppEnums.ErrorCode;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,9 +20,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 @RestController
@@ -30,95 +29,63 @@ import java.util.concurrent.ExecutionException;
 public class PostController {
 
     private final PostService postService;
-    private final UserService userService;
-    private final JwtTokenProvider jwtTokenProvider;
+    private final EngagementMembershipService engagementMembershipService;
     private static final Logger LOGGER = LoggerFactory.getLogger(PostController.class);
 
     @PostMapping("/report/{postId}")
-    public ResponseEntity<String> reportPost(@PathVariable(name = "postId") long postId, HttpServletRequest request) {
+    public ResponseEntity<String> reportPost(@PathVariable(name = "postId") long postId,
+                                             @CurrentUser AuthenticatedUser currentUser) {
         LOGGER.info("PostController.reportPost id: {}", postId);
-        // extracting token form the headers
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        }
-        // extract username from token to check authorizations
-        String username = jwtTokenProvider.extractUsername(token);
-        LOGGER.info("extracted username from the token: {}", username);
+        String username = currentUser.getUsername();
+        long userId = currentUser.getId();
         // If authorization fails we will throw an exception
-        if (!authorizedToInteract(username, postId)) {
+        if (!authorizedToInteract(userId, postId)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "You cannot report your own post", ErrorCode.CANNOT_INVOKE_ON_OWN);
         }
-        // initialize the reportedPosts set to handle NullPointers
-        Set<Long> reportedPosts = userService.findUserByUsername(username).getReportedPosts();
-        if (reportedPosts.isEmpty()) {
-            reportedPosts = new HashSet<>();
-        }
-        boolean targetPostAlreadyReported = reportedPosts.stream().anyMatch(postID -> postID == postId);
-        if (targetPostAlreadyReported) {
+        if (engagementMembershipService.hasReported(userId, postId)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST, "You cannot report the same post twice");
         }
         LOGGER.info("the following user: {}, added a complaint!", username);
-        postService.reportPost(postId, username);
+        postService.reportPost(postId, userId);
         return ResponseEntity.status(HttpStatus.OK)
                 .header("state", "report post")
                 .body("Thank you, the post has been reported.");
     }
 
     @PostMapping("/like/{postId}")
-    public ResponseEntity<String> likePost(@PathVariable(name = "postId") long postId, HttpServletRequest request) {
+    public ResponseEntity<String> likePost(@PathVariable(name = "postId") long postId,
+                                             @CurrentUser AuthenticatedUser currentUser) {
         LOGGER.info("PostController.likePost postId: {}", postId);
-        // extracting token form the headers
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        }
-        // extract username from token to check authorizations
-        String username = jwtTokenProvider.extractUsername(token);
-        LOGGER.info("extracted username from the token: {}", username);
+        String username = currentUser.getUsername();
+        long userId = currentUser.getId();
         // If authorization fails we will throw an exception
-        if (!authorizedToInteract(username, postId)) {
+        if (!authorizedToInteract(userId, postId)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "You cannot like your own post", ErrorCode.CANNOT_INVOKE_ON_OWN);
         }
-        // initialize the likePost set to handle NullPointers
-        Set<Long> likedPosts = userService.findUserByUsername(username).getLikedPosts();
-        if (likedPosts.isEmpty()) {
-            likedPosts = new HashSet<>();
-        }
         // if currUser already liked the post disable their ability to like again
-        boolean targetPostAlreadyLiked = likedPosts.stream().anyMatch(postID -> postID == postId);
-        if (targetPostAlreadyLiked) {
+        if (engagementMembershipService.hasLiked(userId, postId)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST, "You cannot like the same post twice");
         }
-        postService.incrementLikes(postId, username);
+        postService.incrementLikes(postId, userId);
         return ResponseEntity.status(HttpStatus.OK)
                 .header("state", "liked post")
                 .body(username + " liked the post: ID-" + postId);
     }
 
     @PostMapping("/share/{postId}")
-    public ResponseEntity<String> sharePost(@PathVariable(name = "postId") long postId, HttpServletRequest request) {
+    public ResponseEntity<String> sharePost(@PathVariable(name = "postId") long postId,
+                                             @CurrentUser AuthenticatedUser currentUser) {
         LOGGER.info("PostController.sharePost postId: {}", postId);
-        // extracting token form the headers
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        }
-        // extract username from token to check authorizations
-        String username = jwtTokenProvider.extractUsername(token);
-        LOGGER.info("extracted username from the token: {}", username);
+        String username = currentUser.getUsername();
         // If authorization fails we will throw an exception
-        if (!authorizedToInteract(username, postId)) {
+        if (!authorizedToInteract(currentUser.getId(), postId)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "You cannot promote/share your own post", ErrorCode.CANNOT_INVOKE_ON_OWN);
         }
         // currUser is able to share the same post multiple times
-        postService.incrementShares(postId, username);
+        postService.incrementShares(postId, currentUser.getId());
         return ResponseEntity.status(HttpStatus.OK)
                 .header("state", "shared post")
                 .body(username + " shared the post: ID-" + postId);
@@ -136,24 +103,17 @@ public class PostController {
     @GetExecutionTime
     @PutMapping("/{id}")
     public ResponseEntity<PostDto> updatePost(@Valid @RequestBody PostDto postDto,
-                                              @PathVariable(name = "id") long id, HttpServletRequest request) throws ExecutionException, InterruptedException {
+                                              @PathVariable(name = "id") long id, @CurrentUser AuthenticatedUser currentUser,
+                                              HttpServletRequest request) throws ExecutionException, InterruptedException {
         LOGGER.info("PostController.updatePost postId: {}", id);
         if (!contentTypeValidator(request)) { // validate delivered content/payload
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "Unsupported media type", ErrorCode.UNSUPPORTED_MEDIA_TYPE);
         }
-        // extracting token form the headers
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        }
-        // extract username from token to check authorizations
-        String username = jwtTokenProvider.extractUsername(token);
-        LOGGER.info("extracted username from token: {}", username);
         // verify that currUser is the owner of the target post to update
-        Long currUserId = userService.findUserByUsername(username).getId();
-        Long actualPostPublisherID = postService.getPostById(id).getPublisherID();
+        Long currUserId = currentUser.getId();
+        // looked up directly, a post still pending moderation can be edited & deleted by its owner too
+        Long actualPostPublisherID = postService.getPublisherId(id);
         if (!currUserId.equals(actualPostPublisherID)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "You cannot edit posts that are not your own", ErrorCode.CANNOT_BE_DIFF_USER);
@@ -166,20 +126,13 @@ public class PostController {
 
     @GetExecutionTime
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deletePost(@PathVariable(name = "id") long id, HttpServletRequest request){
+    public ResponseEntity<String> deletePost(@PathVariable(name = "id") long id, @CurrentUser AuthenticatedUser currentUser){
         LOGGER.info("PostController.deletePost postId: {}", id);
-        // extracting token form the headers
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        }
-        // extract username from token to check authorizations
-        String username = jwtTokenProvider.extractUsername(token);
-        LOGGER.info("extracted username from token: {}", username);
+        String username = currentUser.getUsername();
         // verify that currUser is the owner of the target post to delete
-        Long currUserId = userService.findUserByUsername(username).getId();
-        Long actualPostPublisherID = postService.getPostById(id).getPublisherID();
+        Long currUserId = currentUser.getId();
+        // looked up directly, a post still pending moderation can be edited & deleted by its owner too
+        Long actualPostPublisherID = postService.getPublisherId(id);
         if (!currUserId.equals(actualPostPublisherID)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "You cannot delete posts that are not your own", ErrorCode.CANNOT_BE_DIFF_USER);
@@ -207,7 +160,7 @@ public class PostController {
 
     @GetExecutionTime
     @GetMapping("/publisher/{publisherId}")
-    public ResponseEntity<List<PostDto>> getPostByPublisherId(@PathVariable(name = "publisherId") long publisherId){
+    public ResponseEntity<List<PostSummaryDto>> getPostByPublisherId(@PathVariable(name = "publisherId") long publisherId){
         return ResponseEntity.ok(postService.getPostByPublisherId(publisherId)); // time taken to execute : 19 ms
     }
 
@@ -219,11 +172,8 @@ public class PostController {
         return false;
     }
 
-    private boolean authorizedToInteract(String username, long postId) {
-        UserDTO currUser = userService.findUserByUsername(username);
-        boolean selfInteraction = currUser.getPosts()
-                .stream().anyMatch(postID -> postID == postId);
-
+    private boolean authorizedToInteract(long userId, long postId) {
+        boolean selfInteraction = postService.getPublisherId(postId) == userId;
         return !selfInteraction;
     }
 }
\ No newline at end of file
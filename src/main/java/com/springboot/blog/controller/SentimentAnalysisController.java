@@ -1,34 +1,44 @@
 package com.springboot.blog.controller;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.springboot.blog.exception.BlogAPIException;
-import com.springboot.blog.jwt.JwtTokenProvider;
+import com.springboot.blog.payload.SentimentResult;
 import com.springboot.blog.service.impl.SentimentAnalysisService;
 import com.springboot.blog.utils.AppEnums.ErrorCode;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/sentiment")
 public class SentimentAnalysisController {
 
-    private final JwtTokenProvider jwtTokenProvider;
     private final SentimentAnalysisService sentimentAnalysisService;
+    private final ObjectMapper objectMapper;
+    @Value("${sentiment.batch.max-size:1000}")
+    private int maxBatchSize;
+    @Value("${sentiment.batch.result-timeout-ms:30000}")
+    private long resultTimeoutMillis;
     private static final Logger LOGGER = LoggerFactory.getLogger(SentimentAnalysisController.class);
-    @Autowired
-    public SentimentAnalysisController(SentimentAnalysisService sentimentAnalysisService,
-                                       JwtTokenProvider jwtTokenProvider) {
-        this.jwtTokenProvider = jwtTokenProvider;
-        this.sentimentAnalysisService = sentimentAnalysisService;
-    }
 
     @PostMapping("/analyze") // proof of concept for the profanity filter class
     public ResponseEntity<String> analyzeSentiment(@RequestBody String text, HttpServletRequest request) {
@@ -38,11 +48,76 @@ public class SentimentAnalysisController {
                     "Unsupported media type", ErrorCode.UNSUPPORTED_MEDIA_TYPE);
         }
         LOGGER.info("Running SentimentAnalysisController.analyzeSentiment");
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        } String sentiment = sentimentAnalysisService.analyzeSentiment(text);
+        if (!sentimentAnalysisService.isModelReady()) { // a placeholder "Neutral" would read as a real answer here
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "10")
+                    .header("state", "sentiment model " + sentimentAnalysisService.getModelState().name().toLowerCase())
+                    .body("The sentiment model is not available yet, please retry shortly.");
+        }
+        // authenticated by the JWT filter before reaching the controller
+        String sentiment = sentimentAnalysisService.analyzeSentiment(text);
         return ResponseEntity.ok("Text Sentiment Classification: " + sentiment);
     }
+
+    /**
+     * Classifies a JSON array of texts, answering with one NDJSON line per text as soon as it is
+     * classified: {"index":3,"sentiment":"Positive"} or {"index":4,"error":"..."}. Lines arrive in
+     * completion order, the index is the position of the text in the request.
+     * When no result arrives for {@code sentiment.batch.result-timeout-ms} the texts still missing get a
+     * timeout error line and the batch is given up. A failed write (client gone) cancels the texts not
+     * started yet, so an abandoned batch does not keep the sentiment pool busy.
+     */
+    @PostMapping(value = "/analyze-batch", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> analyzeSentimentBatch(@RequestBody List<String> texts,
+                                                                       HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.startsWith("application/json")) {
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
+                    "Unsupported media type", ErrorCode.UNSUPPORTED_MEDIA_TYPE);
+        }
+        if (texts.size() > maxBatchSize) {
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
+                    "A batch cannot contain more than " + maxBatchSize + " texts");
+        }
+        LOGGER.info("Running SentimentAnalysisController.analyzeSentimentBatch size: {}", texts.size());
+        if (!sentimentAnalysisService.isModelReady()) {
+            throw new BlogAPIException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "The sentiment model is not available yet, please retry shortly.");
+        }
+        StreamingResponseBody body = outputStream -> {
+            BlockingQueue<SentimentResult> results = new LinkedBlockingQueue<>();
+            List<CompletableFuture<Void>> pending = sentimentAnalysisService.analyzeSentimentBatch(texts, results::add);
+            boolean[] written = new boolean[texts.size()];
+            try {
+                for (int writtenCount = 0; writtenCount < texts.size(); writtenCount++) {
+                    SentimentResult result = results.poll(resultTimeoutMillis, TimeUnit.MILLISECONDS);
+                    if (result == null) {
+                        LOGGER.warn("sentiment batch timed out with {} of {} texts classified", writtenCount, texts.size());
+                        for (int index = 0; index < written.length; index++) {
+                            if (!written[index]) {
+                                writeLine(outputStream, new SentimentResult(index, null, "timed out"));
+                            }
+                        }
+                        return;
+                    }
+                    written[result.getIndex()] = true;
+                    writeLine(outputStream, result);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                // no-op for the texts already classified
+                pending.forEach(task -> task.cancel(false));
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header("state", "sentiment batch")
+                .body(body);
+    }
+
+    private void writeLine(OutputStream outputStream, SentimentResult result) throws IOException {
+        outputStream.write((objectMapper.writeValueAsString(result) + "\n").getBytes(StandardCharsets.UTF_8));
+        outputStream.flush();
+    }
 }
@@ -1,14 +1,14 @@
 package com.springboot.blog.controller;
 
 import com.springboot.blog.entity.UserEntity;
+import com.springboot.blog.annotations.CurrentUser;
 import com.springboot.blog.exception.BlogAPIException;
-import com.springboot.blog.jwt.JwtTokenProvider;
-import com.springboot.blog.payload.PostDto;
+import com.springboot.blog.jwt.AuthenticatedUser;
+import com.springboot.blog.payload.PostSummaryDto;
 import com.springboot.blog.payload.UserDTO;
 import com.springboot.blog.repository.UserRepository;
 import com.springboot.blog.service.UserService;
 import com.springboot.blog.utils.AppEnums.ErrorCode;
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,26 +27,16 @@ import java.util.concurrent.ExecutionException;
 public class UserController {
 
     private final UserService userService;
-    private final JwtTokenProvider jwtTokenProvider;
     private final UserRepository userRepository;
 
     private static final Logger LOGGER =
             LoggerFactory.getLogger(UserController.class);
 
     @GetMapping("/{userId}/feed")
-    public ResponseEntity<Set<PostDto>> getRecommendedPosts(@PathVariable Long userId, HttpServletRequest request) throws ExecutionException, InterruptedException {
+    public ResponseEntity<Set<PostSummaryDto>> getRecommendedPosts(@PathVariable Long userId, @CurrentUser AuthenticatedUser currentUser) throws ExecutionException, InterruptedException {
         LOGGER.info("UserController.getRecommendedPosts currentUserId: {}", userId);
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        }
-        // extract username from token to check authorizations
-        String username = jwtTokenProvider.extractUsername(token);
-        LOGGER.info("extracted username from token: {}", username);
-        UserDTO authenticUser = userService.findUserByUsername(username);
         // check if authenticUserID == currentUserId
-        if (!authenticUser.getId().equals(userId)) {
+        if (!currentUser.getId().equals(userId)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "You cannot request post feed that is not your own", ErrorCode.CANNOT_BE_DIFF_USER);
         }
@@ -57,26 +47,15 @@ public class UserController {
 
     @PostMapping("/{currentUserId}/follow/{targetUserId}")
     public ResponseEntity<String> follow(@PathVariable Long currentUserId,
-                                         @PathVariable Long targetUserId, HttpServletRequest request) {
+                                         @PathVariable Long targetUserId, @CurrentUser AuthenticatedUser currentUser) {
         LOGGER.info("UserController.follow currentUserId: {}, targetUserId: {}", currentUserId, targetUserId);
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        }
-        // extract username from token to check authorizations
-        String username = jwtTokenProvider.extractUsername(token);
-        LOGGER.info("extracted username from token: {}", username);
-
-        UserDTO authenticUser = userService.findUserByUsername(username);
         // check if authenticUserID == currentUserId
-        if (!authenticUser.getId().equals(currentUserId)) {
+        if (!currentUser.getId().equals(currentUserId)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "You cannot follow on behalf of someone else", ErrorCode.CANNOT_BE_DIFF_USER);
         }
         // check if the currUser follows targetUser
-        boolean alreadyFollowing = authenticUser.getFollowing().stream()
-                .anyMatch(followDto -> followDto.getId().equals(targetUserId));
+        boolean alreadyFollowing = userService.isFollowing(currentUserId, targetUserId);
 
         if (alreadyFollowing) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST, "You cannot follow the same person twice");
@@ -90,26 +69,15 @@ public class UserController {
 
     @PostMapping("/{currentUserId}/unfollow/{targetUserId}")
     public ResponseEntity<String> unfollow(@PathVariable Long currentUserId,
-                                           @PathVariable Long targetUserId, HttpServletRequest request) {
+                                           @PathVariable Long targetUserId, @CurrentUser AuthenticatedUser currentUser) {
         LOGGER.info("UserController.unfollow currentUserId: {}, targetUserId: {}", currentUserId, targetUserId);
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        }
-        // extract username from token to check authorizations
-        String username = jwtTokenProvider.extractUsername(token);
-        LOGGER.info("extracted username from token: {}", username);
-
-        UserDTO authenticUser = userService.findUserByUsername(username);
         // check if authenticUserID == currentUserId
-        if (!authenticUser.getId().equals(currentUserId)) {
+        if (!currentUser.getId().equals(currentUserId)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "You cannot unfollow on behalf of someone else", ErrorCode.CANNOT_BE_DIFF_USER);
         }
         // check if the currUser follows targetUser
-        boolean alreadyFollowing = authenticUser.getFollowing().stream()
-                .anyMatch(followDto -> followDto.getId().equals(targetUserId));
+        boolean alreadyFollowing = userService.isFollowing(currentUserId, targetUserId);
 
         if (!alreadyFollowing) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
@@ -124,27 +92,18 @@ public class UserController {
 
     @PostMapping("/{userId}/preferences")
     public ResponseEntity<String> addFavGenres(@PathVariable Long userId,
-                                               @RequestBody UserDTO userDTO, HttpServletRequest request) {
+                                               @RequestBody UserDTO userDTO, @CurrentUser AuthenticatedUser currentUser) {
         LOGGER.info("UserController.addFavGenres currentUserId: {}", userId);
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        }
-        // extract username from token to check authorizations
-        String username = jwtTokenProvider.extractUsername(token);
-        LOGGER.info("extracted username from token: {}", username);
-
-        UserDTO authenticUser = userService.findUserByUsername(username);
         // check if authenticUserID == currentUserId
-        if (!authenticUser.getId().equals(userId)) {
+        if (!currentUser.getId().equals(userId)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "You cannot add blog preferences on behalf of someone else",
                     ErrorCode.CANNOT_BE_DIFF_USER);
         }
         // check if the currUser follows targetUser
+        Set<String> favGenres = userService.getFavGenres(userId);
         boolean genreAlreadyPresent = userDTO.getFavBlogGenres().stream()
-                .anyMatch(newGenre -> authenticUser.getFavBlogGenres().contains(newGenre));
+                .anyMatch(favGenres::contains);
         if (genreAlreadyPresent) {
             throw new BlogAPIException("You already added this genre to your blog preferences");
         }
@@ -157,20 +116,10 @@ public class UserController {
 
     @DeleteMapping("/{userId}/preferences")
     public ResponseEntity<String> clearAllFavGenres(@PathVariable Long userId,
-                                               @RequestBody UserDTO userDTO, HttpServletRequest request) {
+                                               @RequestBody UserDTO userDTO, @CurrentUser AuthenticatedUser currentUser) {
         LOGGER.info("UserController.clearAllFavGenres currentUserId: {}", userId);
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        }
-        // extract username from token to check authorizations
-        String username = jwtTokenProvider.extractUsername(token);
-        LOGGER.info("extracted username from token: {}", username);
-
-        UserDTO authenticUser = userService.findUserByUsername(username);
         // check if authenticUserID == currentUserId
-        if (!authenticUser.getId().equals(userId)) {
+        if (!currentUser.getId().equals(userId)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "You cannot remove preferences on behalf of someone else",
                     ErrorCode.CANNOT_BE_DIFF_USER);
@@ -182,35 +131,23 @@ public class UserController {
     }
 
     @GetMapping("/{userId}/followers")
-    public ResponseEntity<Set<UserDTO>> getAllFollowers(@PathVariable Long userId, HttpServletRequest request) {
+    public ResponseEntity<Set<UserDTO>> getAllFollowers(@PathVariable Long userId) {
         LOGGER.info("UserController.getAllFollowers currentUserId: {}", userId);
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        } // public information for any user to see following & followers of members
+        // public information for any user to see following & followers of members
         return ResponseEntity.ok(userService.getUserFollowers(userId));
     }
 
     @GetMapping("/{userId}/following")
-    public ResponseEntity<Set<UserDTO>> getAllFollowing(@PathVariable Long userId, HttpServletRequest request) {
+    public ResponseEntity<Set<UserDTO>> getAllFollowing(@PathVariable Long userId) {
         LOGGER.info("UserController.getAllFollowing currentUserId: {}", userId);
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        } // public information for any user to see following & followers of members
+        // public information for any user to see following & followers of members
         return ResponseEntity.ok(userService.getUserFollowing(userId));
     }
 
     @GetMapping("/members")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public ResponseEntity<Set<UserDTO>> getAllUsers(HttpServletRequest request) {
-        String token = jwtTokenProvider.getTokenFromHeader(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
-                    "The provided jwt token is not valid", ErrorCode.INVALID_JWT_TOKEN);
-        } // private information only for admin users to see & interact with
+    public ResponseEntity<Set<UserDTO>> getAllUsers() {
+        // private information only for admin users to see & interact with
         return ResponseEntity.ok(userService.getAllUsers());
     }
 }
@@ -62,6 +62,10 @@ public class Post implements Serializable {
     @Column(name = "profanityStatus")
     private String profanityStatus;
 
+    // word bank version & thresholds the stored profanityStatus was computed with
+    @Column(name = "moderationStamp")
+    private String moderationStamp;
+
     @Column(name = "numOfReports")
     private Long numOfReports;
 
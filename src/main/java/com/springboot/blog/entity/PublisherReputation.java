@@ -0,0 +1,61 @@
+package com.springboot.blog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Running aggregates behind a publisher's reputation score.
+ * Every engagement event adjusts one row in place, a scheduled reconciliation
+ * rebuilds the rows from the posts table to correct any drift.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "publisher_reputation")
+public class PublisherReputation implements Serializable {
+
+    @Id
+    @Column(name = "publisherId")
+    private Long publisherId;
+
+    @Column(name = "postCount", nullable = false)
+    private long postCount;
+
+    @Column(name = "likesSum", nullable = false)
+    private long likesSum;
+
+    @Column(name = "sharesSum", nullable = false)
+    private long sharesSum;
+
+    @Column(name = "commentsSum", nullable = false)
+    private long commentsSum;
+
+    // negative posts count -1, positive posts +1
+    @Column(name = "sentimentSum", nullable = false)
+    private long sentimentSum;
+
+    @Column(name = "blockedCount", nullable = false)
+    private long blockedCount;
+
+    // sum of 1 / (hours between consecutive posts + epsilon)
+    @Column(name = "frequencySum", nullable = false)
+    private double frequencySum;
+
+    @Column(name = "lastPublishDate")
+    private Date lastPublishDate;
+
+    @Column(name = "followerCount", nullable = false)
+    private long followerCount;
+
+    // null until the row has been rebuilt from scratch at least once
+    @Column(name = "reconciledAt")
+    private Date reconciledAt;
+}
@@ -2,6 +2,7 @@ package com.springboot.blog.filters;
 
 import com.springboot.blog.jwt.MyUserDetailsService;
 import com.springboot.blog.jwt.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -32,12 +33,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // extract token form header
         String token = getTokenFromHeader(request);
 
-        if (token != null && jwtTokenProvider.validateToken(token)) {
-            // extract username from token
-            String username = jwtTokenProvider.extractUsername(token);
+        if (token != null) {
+            // verify the token & extract its claims in one parse
+            Claims claims = jwtTokenProvider.parseClaims(token);
 
-            // load db object for authentication
-            UserDetails foundUser = myUserDetailsService.loadUserByUsername(username);
+            // id & roles are signed into the token, only older tokens without them need the user lookup
+            UserDetails foundUser = jwtTokenProvider.toAuthenticatedUser(claims);
+            if (foundUser == null) {
+                foundUser = myUserDetailsService.loadUserByUsername(claims.getSubject());
+            }
 
             // verify that authorizations on the user
             Authentication authenticated = new UsernamePasswordAuthenticationToken(
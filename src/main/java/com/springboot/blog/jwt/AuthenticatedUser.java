@@ -0,0 +1,31 @@
+package com.springboot.blog.jwt;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Principal of an authenticated request, resolved once by the JWT filter.
+ * Carries the id & email so controllers never have to look the user up again.
+ */
+@Getter
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+    private final String email;
+
+    public AuthenticatedUser(Long id, String username, String email, String password,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+        this.email = email;
+    }
+
+    public Set<String> getRoles() {
+        return getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+    }
+}
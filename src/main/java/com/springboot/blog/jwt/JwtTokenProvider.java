@@ -5,65 +5,143 @@ import com.springboot.blog.utils.AppEnums.ErrorCode;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
-import java.util.Date;
+import java.util.*;
+import java.util.stream.Collectors;
 
+/**
+ * Issues & verifies JWTs. The signing key and the (thread-safe) parser are built once at startup,
+ * and the claims of recently verified tokens are kept in a bounded LRU keyed by the SHA-256 of the
+ * token, so a client repeating its bearer token skips the HMAC check and the claims parsing until
+ * the token expires.
+ * Tokens carry the user id, email & roles as signed claims so a request can be authorized from the
+ * token alone; roles granted or revoked later only apply to tokens issued after the change.
+ */
 @Component
 public class JwtTokenProvider {
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String EMAIL_CLAIM = "email";
+    private static final String ROLES_CLAIM = "roles";
+
     @Value("${app.jwt-secret}")
     private String jwtSecret;
     @Value("${app.jwt-expiration-milliseconds}")
     private String jwtExpiration;
+    @Value("${app.jwt-verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    private Map<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedTokens = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        });
+    }
 
     public String generateToken(Authentication authentication) {
         String username = authentication.getName();
         Instant currentDate = Instant.now();
         Instant expireDate = currentDate.plusMillis(Long.parseLong(jwtExpiration));
 
-        String token = Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(Date.from(currentDate))
-                .setExpiration(Date.from(expireDate))
-                .signWith(secretKey())
-                .compact();
+                .setExpiration(Date.from(expireDate));
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            builder.claim(USER_ID_CLAIM, user.getId())
+                    .claim(EMAIL_CLAIM, user.getEmail())
+                    .claim(ROLES_CLAIM, new ArrayList<>(user.getRoles()));
+        }
+        String token = builder.signWith(signingKey).compact();
 
         return token;
     }
 
-    private Key secretKey() {
-        return Keys.hmacShaKeyFor(
-                Decoders.BASE64.decode(jwtSecret)
-        );
-    }
-
     public String extractUsername(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(secretKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        String username = claims.getSubject();
+        String username = parseClaims(token).getSubject();
         return username;
     }
 
     public boolean validateToken(String token) {
+        parseClaims(token);
+        return true;
+    }
+
+    /**
+     * Verifies the token and returns its claims in a single parse,
+     * or straight from the cache when the same token was verified before and has not expired yet.
+     */
+    public Claims parseClaims(String token) {
+        String tokenHash = hash(token);
+        Claims cachedClaims = verifiedTokens.get(tokenHash);
+        if (cachedClaims != null) {
+            if (!isExpired(cachedClaims)) {
+                return cachedClaims;
+            }
+            verifiedTokens.remove(tokenHash); // expired, let the parser raise the proper error
+        }
+        Claims claims = verify(token);
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(tokenHash, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * Builds the request principal from the claims of a verified token,
+     * or returns null for tokens issued without the user claims.
+     */
+    public AuthenticatedUser toAuthenticatedUser(Claims claims) {
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (userId == null || roles == null) {
+            return null;
+        }
+        Set<GrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString())).collect(Collectors.toSet());
+        // the password is never needed past the login, so the principal carries none
+        return new AuthenticatedUser(userId, claims.getSubject(), claims.get(EMAIL_CLAIM, String.class),
+                "", authorities);
+    }
+
+    private static boolean isExpired(Claims claims) {
+        return claims.getExpiration() == null || claims.getExpiration().getTime() <= System.currentTimeMillis();
+    }
+
+    private static String hash(String token) {
         try {
-            Jwts
-                    .parser()
-                    .setSigningKey(secretKey())
-                    .build()
-                    .parse(token);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 
-            return true;
+    private Claims verify(String token) {
+        try {
+            return jwtParser.parseSignedClaims(token).getPayload();
 
         } catch (ExpiredJwtException e) {
             // Handle token expiration
@@ -4,35 +4,76 @@ import com.springboot.blog.entity.UserEntity;
 import com.springboot.blog.exception.BlogAPIException;
 import com.springboot.blog.repository.UserRepository;
 import com.springboot.blog.utils.AppEnums.ErrorCode;
-import lombok.AllArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Loads users for authentication. Results are kept in a bounded LRU so only tokens without
+ * role claims & logins hit the users table; {@link #evictUser(String)} must be called
+ * whenever a user's roles or password change.
+ */
 @Service
-@AllArgsConstructor
 public class MyUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    @Value("${app.user-details-cache-size:1000}")
+    private int userDetailsCacheSize;
+
+    private Map<String, CachedUser> userDetailsCache;
+
+    public MyUserDetailsService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        userDetailsCache = Collections.synchronizedMap(new LinkedHashMap<>(128, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                return size() > userDetailsCacheSize;
+            }
+        });
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // find the user by username in order to return User(username, password, GrantedAuthorities roles)
-        UserEntity foundUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new BlogAPIException(HttpStatus.BAD_REQUEST,
-                "the user was not found with username: " + username, ErrorCode.USER_NOT_FOUND));
-        // creating a set of Granted authorities in order to pass it to the User Object
-        Set<GrantedAuthority> userRoles = foundUser.getRoles()
-                .stream().map(role -> new SimpleGrantedAuthority(role.getName())).collect(Collectors.toSet());
-        return new User(foundUser.getUsername(), foundUser.getPassword(), userRoles);
+        CachedUser cachedUser = userDetailsCache.get(username);
+        if (cachedUser == null) {
+            // find the user by username in order to return User(username, password, GrantedAuthorities roles)
+            UserEntity foundUser = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new BlogAPIException(HttpStatus.BAD_REQUEST,
+                    "the user was not found with username: " + username, ErrorCode.USER_NOT_FOUND));
+            // creating a set of Granted authorities in order to pass it to the User Object
+            Set<GrantedAuthority> userRoles = foundUser.getRoles()
+                    .stream().map(role -> new SimpleGrantedAuthority(role.getName())).collect(Collectors.toSet());
+            cachedUser = new CachedUser(foundUser.getId(), foundUser.getUsername(), foundUser.getEmail(),
+                    foundUser.getPassword(), Set.copyOf(userRoles));
+            userDetailsCache.put(username, cachedUser);
+        }
+        // a fresh principal every time, spring security erases the credentials of the one it authenticated
+        return new AuthenticatedUser(cachedUser.id(), cachedUser.username(), cachedUser.email(),
+                cachedUser.password(), cachedUser.authorities());
+    }
+
+    public void evictUser(String username) {
+        userDetailsCache.remove(username);
+    }
 
+    private record CachedUser(Long id, String username, String email, String password,
+                              Set<GrantedAuthority> authorities) {
     }
 }
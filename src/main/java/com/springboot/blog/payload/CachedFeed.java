@@ -0,0 +1,20 @@
+package com.springboot.blog.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * A user's feed as kept in the userRecommendedPosts cache, with the time it was computed
+ * so readers can tell when it is due for a background refresh.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CachedFeed implements Serializable {
+    private Set<PostSummaryDto> posts;
+    private long refreshedAt;
+}
@@ -0,0 +1,16 @@
+package com.springboot.blog.payload;
+
+import java.util.Date;
+
+/**
+ * Numeric & status columns of a post, enough to score its publisher's reputation
+ * without pulling the TEXT content or the publisher graph into memory.
+ */
+public interface PostMetrics {
+    Long getLikesCount();
+    Long getShareCount();
+    Long getCommentCount();
+    Date getPublishDate();
+    String getPostSentiment();
+    String getProfanityStatus();
+}
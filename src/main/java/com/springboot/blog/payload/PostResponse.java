@@ -11,7 +11,7 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 public class PostResponse implements Serializable {
-    private List<PostDto> content;
+    private List<PostSummaryDto> content;
     private int pageNo;
     private int pageSize;
     private long totalElements;
@@ -0,0 +1,23 @@
+package com.springboot.blog.payload;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Columns of a post needed to render it in a list, everything but the TEXT content,
+ * the comments and the publisher graph.
+ */
+public interface PostSummary {
+    Long getId();
+    Long getPublisherId();
+    String getTitle();
+    String getDescription();
+    List<String> getTags();
+    Date getPublishDate();
+    Long getLikesCount();
+    Long getShareCount();
+    Long getCommentCount();
+    String getPostSentiment();
+    String getProfanityStatus();
+    String getModerationStamp();
+}
@@ -0,0 +1,44 @@
+package com.springboot.blog.payload;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * List & trending representation of a post, the full content is only served by the single post endpoint.
+ */
+@Data
+public class PostSummaryDto implements Serializable {
+    private Long id;
+    private Long publisherID;
+    private String title;
+    private String description;
+    private List<String> tags;
+    @JsonFormat(shape = JsonFormat.Shape.STRING,
+            pattern = "yyyy-MM-dd HH:mm:ss", timezone = "UTC")
+    private Date publishDate;
+    private long likesCount;
+    private long shareCount;
+    private long commentCount;
+    private String postSentiment;
+    private String profanityStatus;
+
+    public static PostSummaryDto from(PostSummary summary) {
+        PostSummaryDto postSummaryDto = new PostSummaryDto();
+        postSummaryDto.setId(summary.getId());
+        postSummaryDto.setPublisherID(summary.getPublisherId());
+        postSummaryDto.setTitle(summary.getTitle());
+        postSummaryDto.setDescription(summary.getDescription());
+        postSummaryDto.setTags(summary.getTags());
+        postSummaryDto.setPublishDate(summary.getPublishDate());
+        postSummaryDto.setLikesCount(summary.getLikesCount() == null ? 0 : summary.getLikesCount());
+        postSummaryDto.setShareCount(summary.getShareCount() == null ? 0 : summary.getShareCount());
+        postSummaryDto.setCommentCount(summary.getCommentCount() == null ? 0 : summary.getCommentCount());
+        postSummaryDto.setPostSentiment(summary.getPostSentiment());
+        postSummaryDto.setProfanityStatus(summary.getProfanityStatus());
+        return postSummaryDto;
+    }
+}
@@ -0,0 +1,6 @@
+package com.springboot.blog.payload;
+
+public interface PublisherFollowerCount {
+    Long getPublisherId();
+    Long getFollowerCount();
+}
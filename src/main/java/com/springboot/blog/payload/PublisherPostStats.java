@@ -0,0 +1,20 @@
+package com.springboot.blog.payload;
+
+import java.util.Date;
+
+/**
+ * Per publisher sums of the post columns the reputation score is built from.
+ * Populated straight from a grouped native query, no Post entities are loaded.
+ */
+public interface PublisherPostStats {
+    Long getPublisherId();
+    Long getPostCount();
+    Long getLikesSum();
+    Long getSharesSum();
+    Long getCommentsSum();
+    Long getSentimentSum();
+    Long getBlockedCount();
+    // sum of 1 / (hours between consecutive posts + epsilon)
+    Double getFrequencySum();
+    Date getLastPublishDate();
+}
@@ -0,0 +1,21 @@
+package com.springboot.blog.payload;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Verdict for one text of a sentiment batch, {@code index} is the position of the text in the request.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SentimentResult implements Serializable {
+    private int index;
+    private String sentiment;
+    private String error;
+}
@@ -1,25 +1,81 @@
 package com.springboot.blog.repository;
 
 import com.springboot.blog.entity.Post;
+import com.springboot.blog.payload.PostMetrics;
+import com.springboot.blog.payload.PostSummary;
+import com.springboot.blog.payload.PublisherPostStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
-import java.util.Set;
+import java.util.Optional;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
-    @Query(value = "SELECT * FROM posts WHERE publish_date >= CURRENT_DATE - INTERVAL 1 DAY AND profanity_status = 'Active'" +
-            "ORDER BY likes_count DESC, share_count DESC, comment_count DESC LIMIT :numOfPosts", nativeQuery = true)
-    List<Post> findDailyTrendingPosts(@Param("numOfPosts") int numOfPosts);
-    @Query(value = "SELECT * FROM posts WHERE publish_date >= CURRENT_DATE - INTERVAL 7 DAY AND profanity_status = 'Active'" +
-            "ORDER BY likes_count DESC, share_count DESC, comment_count DESC LIMIT :numOfPosts", nativeQuery = true)
-    List<Post> findWeeklyTrendingPosts(@Param("numOfPosts") int numOfPosts);
-    @Query(value = "SELECT * FROM posts WHERE publish_date >= CURRENT_DATE - INTERVAL 30 DAY AND profanity_status = 'Active'" +
-            "ORDER BY likes_count DESC, share_count DESC, comment_count DESC LIMIT :numOfPosts", nativeQuery = true)
-    List<Post> findMonthlyTrendingPosts(@Param("numOfPosts") int numOfPosts);
-
-    @Query(value = "SELECT * FROM posts WHERE publisher_id = :publisherId ORDER BY publish_date", nativeQuery = true)
-    List<Post> findAllPostsByPublisher(@Param("publisherId") long publisherId);
+    // everything a list needs, without the TEXT content, the comments or the publisher graph
+    String POST_SUMMARY = "SELECT p.id AS id, p.publisherID.id AS publisherId, p.title AS title, " +
+            "p.description AS description, p.tags AS tags, p.publishDate AS publishDate, " +
+            "p.likesCount AS likesCount, p.shareCount AS shareCount, p.commentCount AS commentCount, " +
+            "p.postSentiment AS postSentiment, p.profanityStatus AS profanityStatus, " +
+            "p.moderationStamp AS moderationStamp FROM Post p ";
+
+    @Query(value = POST_SUMMARY, countQuery = "SELECT COUNT(p) FROM Post p")
+    Page<PostSummary> findAllSummaries(Pageable pageable);
+
+    @Query(POST_SUMMARY + "WHERE p.publishDate >= :since AND p.profanityStatus = 'Active' " +
+            "ORDER BY p.likesCount DESC, p.shareCount DESC, p.commentCount DESC")
+    List<PostSummary> findTrendingSummaries(@Param("since") Date since, Pageable pageable);
+
+    @Query(POST_SUMMARY + "WHERE p.publishDate >= :since AND p.profanityStatus = 'Active'")
+    List<PostSummary> findActiveSummariesPublishedSince(@Param("since") Date since);
+
+    @Query(POST_SUMMARY + "WHERE p.id IN (:ids) AND p.profanityStatus = 'Active'")
+    List<PostSummary> findActiveSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(POST_SUMMARY + "WHERE p.publisherID.id IN (:publisherIds) AND p.profanityStatus = 'Active' " +
+            "ORDER BY p.publishDate DESC")
+    List<PostSummary> findRecentActiveSummariesByPublishers(@Param("publisherIds") Collection<Long> publisherIds,
+                                                            Pageable pageable);
+
+    @Query(POST_SUMMARY + "WHERE p.publisherID.id = :publisherId ORDER BY p.publishDate")
+    List<PostSummary> findSummariesByPublisher(@Param("publisherId") long publisherId);
+
+    @Query("SELECT p.id FROM Post p WHERE p.profanityStatus = 'Pending' AND p.publishDate < :before " +
+            "ORDER BY p.publishDate")
+    List<Long> findPendingPostIds(@Param("before") Date before, Pageable pageable);
+
+    // row lock held until the transaction ends, so only one node finalises a pending post
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Post p WHERE p.id = :postId")
+    Optional<Post> findByIdForUpdate(@Param("postId") long postId);
+
+    @Query("SELECT p.publisherID.id FROM Post p WHERE p.id = :postId")
+    Optional<Long> findPublisherIdByPostId(@Param("postId") long postId);
+
+    // pending posts are not counted yet, moderation records them once it has a verdict
+    @Query(value = "SELECT likes_count AS likesCount, share_count AS shareCount, comment_count AS commentCount, " +
+            "publish_date AS publishDate, post_sentiment AS postSentiment, profanity_status AS profanityStatus " +
+            "FROM posts WHERE publisher_id = :publisherId AND profanity_status <> 'Pending' ORDER BY publish_date",
+            nativeQuery = true)
+    List<PostMetrics> findPostMetricsByPublisher(@Param("publisherId") long publisherId);
+
+    @Query(value = "SELECT p.publisher_id AS publisherId, COUNT(*) AS postCount, " +
+            "SUM(COALESCE(p.likes_count, 0)) AS likesSum, SUM(COALESCE(p.share_count, 0)) AS sharesSum, " +
+            "SUM(COALESCE(p.comment_count, 0)) AS commentsSum, " +
+            "SUM(CASE LOWER(p.post_sentiment) WHEN 'negative' THEN -1 WHEN 'positive' THEN 1 ELSE 0 END) AS sentimentSum, " +
+            "SUM(CASE WHEN p.profanity_status = 'Blocked' THEN 1 ELSE 0 END) AS blockedCount, " +
+            "COALESCE(SUM(1.0 / (TIMESTAMPDIFF(MICROSECOND, p.prev_publish_date, p.publish_date) / 3600000000.0 + 0.0001)), 0) AS frequencySum, " +
+            "MAX(p.publish_date) AS lastPublishDate " +
+            "FROM (SELECT publisher_id, likes_count, share_count, comment_count, post_sentiment, profanity_status, publish_date, " +
+            "LAG(publish_date) OVER (PARTITION BY publisher_id ORDER BY publish_date) AS prev_publish_date " +
+            "FROM posts WHERE publisher_id IN (:publisherIds) AND profanity_status <> 'Pending') p " +
+            "GROUP BY p.publisher_id", nativeQuery = true)
+    List<PublisherPostStats> findPostStatsByPublishers(@Param("publisherIds") Collection<Long> publisherIds);
 
 }
@@ -0,0 +1,63 @@
+package com.springboot.blog.repository;
+
+import com.springboot.blog.entity.PublisherReputation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+public interface PublisherReputationRepository extends JpaRepository<PublisherReputation, Long> {
+
+    // posts are moderated out of publish order, an older post neither adds an interval nor moves the last
+    // publish date back; the interval it would have split is corrected by the nightly rebuild
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO publisher_reputation (publisher_id, post_count, likes_sum, shares_sum, comments_sum, " +
+            "sentiment_sum, blocked_count, frequency_sum, last_publish_date, follower_count) " +
+            "VALUES (:publisherId, 1, 0, 0, 0, :sentimentScore, :blocked, 0, :publishDate, 0) " +
+            "ON DUPLICATE KEY UPDATE frequency_sum = frequency_sum + " +
+            "IF(last_publish_date IS NULL OR :publishDate <= last_publish_date, 0, " +
+            "1.0 / (TIMESTAMPDIFF(MICROSECOND, last_publish_date, :publishDate) / 3600000000.0 + 0.0001)), " +
+            "last_publish_date = IF(last_publish_date IS NULL, :publishDate, GREATEST(last_publish_date, :publishDate)), " +
+            "post_count = post_count + 1, " +
+            "sentiment_sum = sentiment_sum + :sentimentScore, blocked_count = blocked_count + :blocked", nativeQuery = true)
+    void addPost(@Param("publisherId") long publisherId, @Param("sentimentScore") int sentimentScore,
+                 @Param("blocked") int blocked, @Param("publishDate") Date publishDate);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE publisher_reputation SET post_count = post_count - 1, likes_sum = likes_sum - :likes, " +
+            "shares_sum = shares_sum - :shares, comments_sum = comments_sum - :comments, " +
+            "sentiment_sum = sentiment_sum - :sentimentScore, blocked_count = blocked_count - :blocked " +
+            "WHERE publisher_id = :publisherId", nativeQuery = true)
+    void removePost(@Param("publisherId") long publisherId, @Param("likes") long likes,
+                    @Param("shares") long shares, @Param("comments") long comments,
+                    @Param("sentimentScore") int sentimentScore, @Param("blocked") int blocked);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO publisher_reputation (publisher_id, post_count, likes_sum, shares_sum, comments_sum, " +
+            "sentiment_sum, blocked_count, frequency_sum, follower_count) " +
+            "VALUES (:publisherId, 0, :likes, :shares, :comments, 0, 0, 0, 0) " +
+            "ON DUPLICATE KEY UPDATE likes_sum = likes_sum + :likes, shares_sum = shares_sum + :shares, " +
+            "comments_sum = comments_sum + :comments", nativeQuery = true)
+    void addEngagement(@Param("publisherId") long publisherId, @Param("likes") long likes,
+                       @Param("shares") long shares, @Param("comments") long comments);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE publisher_reputation SET blocked_count = blocked_count + :delta " +
+            "WHERE publisher_id = :publisherId", nativeQuery = true)
+    void addBlocked(@Param("publisherId") long publisherId, @Param("delta") int delta);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO publisher_reputation (publisher_id, post_count, likes_sum, shares_sum, comments_sum, " +
+            "sentiment_sum, blocked_count, frequency_sum, follower_count) " +
+            "VALUES (:publisherId, 0, 0, 0, 0, 0, 0, 0, :delta) " +
+            "ON DUPLICATE KEY UPDATE follower_count = follower_count + :delta", nativeQuery = true)
+    void addFollowers(@Param("publisherId") long publisherId, @Param("delta") long delta);
+}
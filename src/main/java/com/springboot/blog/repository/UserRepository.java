@@ -1,10 +1,13 @@
 package com.springboot.blog.repository;
 
 import com.springboot.blog.entity.UserEntity;
+import com.springboot.blog.payload.PublisherFollowerCount;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -20,12 +23,55 @@ public interface UserRepository extends JpaRepository<UserEntity,Long> {
     @Query("SELECT u FROM UserEntity u WHERE u.username = :username")
     Optional<UserEntity> findByUsername(@Param("username") String username);
 
+    @Query("SELECT u.id FROM UserEntity u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
     @Query(value = "SELECT * FROM users u INNER JOIN user_followers uf ON u.id = uf.follower_id WHERE uf.user_id = :userId", nativeQuery = true)
     Set<UserEntity> findFollowersByUserId(@Param("userId") Long userId);
 
     @Query(value = "SELECT * FROM users u INNER JOIN user_followers uf ON u.id = uf.user_id WHERE uf.follower_id = :userId", nativeQuery = true)
     Set<UserEntity> findFollowingByUserId(@Param("userId") Long userId);
 
+    @Query(value = "SELECT uf.follower_id FROM user_followers uf WHERE uf.user_id = :userId", nativeQuery = true)
+    List<Long> findFollowerIdsByUserId(@Param("userId") long userId);
+
+    @Query(value = "SELECT uf.user_id FROM user_followers uf WHERE uf.follower_id = :userId", nativeQuery = true)
+    List<Long> findFollowingIdsByUserId(@Param("userId") long userId);
+
+    @Query(value = "SELECT EXISTS(SELECT 1 FROM user_followers WHERE user_id = :userId AND follower_id = :followerId)", nativeQuery = true)
+    Long existsFollower(@Param("userId") long userId, @Param("followerId") long followerId);
+
+    @Query("SELECT genre FROM UserEntity u JOIN u.favBlogGenres genre WHERE u.id = :userId")
+    Set<String> findFavGenresByUserId(@Param("userId") long userId);
+
+    @Query("SELECT DISTINCT u.id FROM UserEntity u JOIN u.favBlogGenres genre WHERE genre IN (:genres)")
+    List<Long> findUserIdsByFavGenres(@Param("genres") Collection<String> genres);
+
+    @Query(value = "SELECT EXISTS(SELECT 1 FROM liked_posts WHERE user_id = :userId AND post_id = :postId)", nativeQuery = true)
+    Long existsLikedPost(@Param("userId") long userId, @Param("postId") long postId);
+
+    @Query(value = "SELECT post_id FROM liked_posts WHERE user_id = :userId", nativeQuery = true)
+    List<Long> findLikedPostIds(@Param("userId") long userId);
+
+    @Query(value = "SELECT EXISTS(SELECT 1 FROM shared_posts WHERE user_id = :userId AND post_id = :postId)", nativeQuery = true)
+    Long existsSharedPost(@Param("userId") long userId, @Param("postId") long postId);
+
+    @Query(value = "SELECT post_id FROM shared_posts WHERE user_id = :userId", nativeQuery = true)
+    List<Long> findSharedPostIds(@Param("userId") long userId);
+
+    @Query(value = "SELECT EXISTS(SELECT 1 FROM reported_posts WHERE user_id = :userId AND post_id = :postId)", nativeQuery = true)
+    Long existsReportedPost(@Param("userId") long userId, @Param("postId") long postId);
+
+    @Query(value = "SELECT post_id FROM reported_posts WHERE user_id = :userId", nativeQuery = true)
+    List<Long> findReportedPostIds(@Param("userId") long userId);
+
+    @Query(value = "SELECT uf.user_id AS publisherId, COUNT(*) AS followerCount FROM user_followers uf " +
+            "WHERE uf.user_id IN (:userIds) GROUP BY uf.user_id", nativeQuery = true)
+    List<PublisherFollowerCount> countFollowersByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT u.id FROM UserEntity u ORDER BY u.id")
+    List<Long> findAllUserIds();
+
     @Query(value = "SELECT * FROM users ORDER BY users.id", nativeQuery = true)
     Set<UserEntity> findAllUsers();
 
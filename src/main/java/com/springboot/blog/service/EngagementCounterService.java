@@ -0,0 +1,15 @@
+package com.springboot.blog.service;
+
+import java.util.List;
+
+public interface EngagementCounterService {
+    boolean recordLike(long postId, long publisherId, long userId);
+    void recordShare(long postId, long publisherId, long userId);
+    boolean recordReport(long postId, long userId);
+    boolean isLikePending(long postId, long userId);
+    boolean isReportPending(long postId, long userId);
+    List<Long> pendingLikesOf(long userId);
+    List<Long> pendingSharesOf(long userId);
+    List<Long> pendingReportsOf(long userId);
+    void flush();
+}
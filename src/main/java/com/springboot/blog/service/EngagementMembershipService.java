@@ -0,0 +1,10 @@
+package com.springboot.blog.service;
+
+public interface EngagementMembershipService {
+    boolean hasLiked(long userId, long postId);
+    boolean hasShared(long userId, long postId);
+    boolean hasReported(long userId, long postId);
+    void markLiked(long userId, long postId);
+    void markShared(long userId, long postId);
+    void markReported(long userId, long postId);
+}
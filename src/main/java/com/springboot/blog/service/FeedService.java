@@ -0,0 +1,17 @@
+package com.springboot.blog.service;
+
+import com.springboot.blog.payload.CachedFeed;
+import com.springboot.blog.payload.PostSummaryDto;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+public interface FeedService {
+    Set<PostSummaryDto> readFeed(long userId, int numOfPosts);
+    CachedFeed computeCachedFeed(long userId, int numOfPosts);
+    CompletableFuture<Void> refreshCachedFeed(long userId, int numOfPosts);
+    void fanOutPost(long postId, long publisherId, long publishTime);
+    void seedTimeline(long userId, long publisherId);
+    void unseedTimeline(long userId, long publisherId);
+    void fanOutTrendingPosts();
+}
@@ -1,8 +1,12 @@
 package com.springboot.blog.service;
 import java.util.List;
-import com.springboot.blog.payload.PostDto;
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.payload.PostSummaryDto;
 public interface NowTrendingService {
-    List<PostDto> getDailyTrending(int numOfPosts);
-    List<PostDto> getWeeklyTrending(int numOfPosts);
-    List<PostDto> getMonthlyTrending(int numOfPosts);
+    List<PostSummaryDto> getDailyTrending(int numOfPosts);
+    List<PostSummaryDto> getWeeklyTrending(int numOfPosts);
+    List<PostSummaryDto> getMonthlyTrending(int numOfPosts);
+    void recordPostPublished(Post post);
+    void recordPostRemoved(long postId);
+    void recordEngagement(long postId, long likesDelta, long sharesDelta, long commentsDelta);
 }
@@ -0,0 +1,6 @@
+package com.springboot.blog.service;
+
+public interface PostModerationService {
+    void submit(long postId);
+    void resubmitPendingPosts();
+}
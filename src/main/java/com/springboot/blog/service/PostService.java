@@ -2,6 +2,7 @@ package com.springboot.blog.service;
 
 import com.springboot.blog.payload.PostDto;
 import com.springboot.blog.payload.PostResponse;
+import com.springboot.blog.payload.PostSummaryDto;
 
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -15,13 +16,15 @@ public interface PostService {
 
     PostDto updatePost(PostDto postDto, long id) throws ExecutionException, InterruptedException;
 
-    void reportPost(Long postId, String username);
+    void reportPost(Long postId, long userId);
 
     void deletePostById(long id, String username);
 
-    void incrementLikes(Long postId, String username);
+    void incrementLikes(Long postId, long userId);
 
-    void incrementShares(Long postId, String username);
+    void incrementShares(Long postId, long userId);
 
-    List<PostDto> getPostByPublisherId(long publisherId);
+    List<PostSummaryDto> getPostByPublisherId(long publisherId);
+
+    long getPublisherId(long postId);
 }
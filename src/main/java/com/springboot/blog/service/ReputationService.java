@@ -1,7 +1,19 @@
 package com.springboot.blog.service;
 
+import com.springboot.blog.entity.Post;
+
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 public interface ReputationService {
+    public double reputationScore(long publisherID);
     public CompletableFuture<Double> overallReputationScore(long publisherID);
+    public Map<Long, Double> overallReputationScores(Collection<Long> publisherIDs);
+    public void recordPostPublished(Post post);
+    public void recordPostRemoved(Post post);
+    public void recordEngagement(long publisherID, long likesDelta, long sharesDelta, long commentsDelta);
+    public void recordModerationVerdict(long publisherID, String previousStatus, String newStatus);
+    public void recordFollowerChange(long publisherID, long delta);
+    public void reconcileReputations();
 }
@@ -1,6 +1,6 @@
 package com.springboot.blog.service;
 
-import com.springboot.blog.payload.PostDto;
+import com.springboot.blog.payload.PostSummaryDto;
 import com.springboot.blog.payload.UserDTO;
 
 import java.util.Set;
@@ -8,7 +8,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 public interface UserService {
-    Set<PostDto> getRecommendedPosts(long userId) throws ExecutionException, InterruptedException;
+    Set<PostSummaryDto> getRecommendedPosts(long userId);
 
     void addFavGenres(long userId, UserDTO userDTO);
 
@@ -25,4 +25,10 @@ public interface UserService {
     Set<UserDTO> getAllUsers();
 
     UserDTO findUserByUsername(String username);
+
+    long findUserIdByUsername(String username);
+
+    boolean isFollowing(long followerId, long targetUserId);
+
+    Set<String> getFavGenres(long userId);
 }
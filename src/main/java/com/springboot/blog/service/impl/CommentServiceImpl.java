@@ -8,6 +8,8 @@ import com.springboot.blog.payload.CommentDto;
 import com.springboot.blog.repository.CommentRepository;
 import com.springboot.blog.repository.PostRepository;
 import com.springboot.blog.service.CommentService;
+import com.springboot.blog.service.NowTrendingService;
+import com.springboot.blog.service.ReputationService;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.cache.CacheManager;
@@ -28,6 +30,8 @@ public class CommentServiceImpl implements CommentService {
     private final CacheManager cacheManager;
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
+    private final ReputationService reputationService;
+    private final NowTrendingService nowTrendingService;
 
     @Override
     public CommentDto createComment(long postId, CommentDto commentDto) {
@@ -43,11 +47,13 @@ public class CommentServiceImpl implements CommentService {
         evictPostCache(postId);
         // comment entity to DB
         Comment newComment =  commentRepository.save(comment);
+        reputationService.recordEngagement(post.getPublisherID().getId(), 0, 0, 1);
+        nowTrendingService.recordEngagement(postId, 0, 0, 1);
         return mapToDTO(newComment);
     }
 
     @Override
-    @Cacheable(cacheNames = "allComments", key = "#postId")
+    @Cacheable(cacheNames = "allComments", key = "#postId", sync = true)
     public List<CommentDto> getCommentsByPostId(long postId) {
         // retrieve comments by postId
         List<Comment> comments = commentRepository.findByPostId(postId);
@@ -56,7 +62,7 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
-    @Cacheable(cacheNames = "comment", key = "#postId + '-' + #commentId")
+    @Cacheable(cacheNames = "comment", key = "#postId + '-' + #commentId", sync = true)
     public CommentDto getCommentById(Long postId, Long commentId) {
         // retrieve post entity by id
         Post post = postRepository.findById(postId).orElseThrow(
@@ -104,6 +110,8 @@ public class CommentServiceImpl implements CommentService {
         }
         if (post.getCommentCount() > 0){
             post.setCommentCount(post.getCommentCount() - 1);
+            reputationService.recordEngagement(post.getPublisherID().getId(), 0, 0, -1);
+            nowTrendingService.recordEngagement(postId, 0, 0, -1);
         }
         evictPostCache(postId);
         commentRepository.delete(comment);
@@ -0,0 +1,264 @@
+package com.springboot.blog.service.impl;
+
+import com.springboot.blog.service.EngagementCounterService;
+import com.springboot.blog.service.ReputationService;
+import com.springboot.blog.utils.AppEnums.CacheEnum;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer for likes, shares & reports.
+ *
+ * A click only bumps a {@link LongAdder} (striped, so a viral post does not serialise its
+ * likers) and remembers the (user, post) row for the join table. Every
+ * {@code engagement.flush.ms} the pending deltas are written in one transaction as batched
+ * {@code UPDATE posts SET likes_count = likes_count + ?} statements and batched
+ * {@code INSERT IGNORE} rows, the publisher reputation gets one delta per publisher and the
+ * cached copies of the flushed posts are evicted. Pending deltas are flushed on shutdown,
+ * a failed flush puts them back for the next run.
+ *
+ * Likes & reports are counted from the join table rows the flush actually inserted, so a duplicate
+ * that got past the membership check and is dropped by {@code INSERT IGNORE} never inflates a counter.
+ * This needs one update count per batched row, i.e. the JDBC driver must not rewrite the batches
+ * ({@code rewriteBatchedStatements} off, the MySQL driver default).
+ *
+ * Counters are swapped out by generation: writers add to the current map, a flush retires it
+ * and drains it again on the following flush so a writer still holding the retired map is never lost.
+ */
+@Service
+@RequiredArgsConstructor
+public class EngagementCounterServiceImpl implements EngagementCounterService {
+
+    private static final String UPDATE_COUNTERS = "UPDATE posts SET likes_count = likes_count + ?, " +
+            "share_count = share_count + ?, num_of_reports = num_of_reports + ? WHERE id = ?";
+    private static final String INSERT_LIKED = "INSERT IGNORE INTO liked_posts (user_id, post_id) VALUES (?, ?)";
+    private static final String INSERT_SHARED = "INSERT IGNORE INTO shared_posts (user_id, post_id) VALUES (?, ?)";
+    private static final String INSERT_REPORTED = "INSERT IGNORE INTO reported_posts (user_id, post_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+    private final ReputationService reputationService;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile ConcurrentHashMap<Long, PendingCounters> currentCounters = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<Long, PendingCounters> retiredCounters = new ConcurrentHashMap<>();
+    // rows stay here until they are committed, so duplicate checks also see unflushed engagement
+    private final Set<EngagementRow> pendingLikes = ConcurrentHashMap.newKeySet();
+    private final Set<EngagementRow> pendingShares = ConcurrentHashMap.newKeySet();
+    private final Set<EngagementRow> pendingReports = ConcurrentHashMap.newKeySet();
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EngagementCounterServiceImpl.class);
+
+    /**
+     * @return false when the user's like of this post is already waiting to be flushed
+     */
+    @Override
+    public boolean recordLike(long postId, long publisherId, long userId) {
+        if (!pendingLikes.add(new EngagementRow(userId, postId))) {
+            return false;
+        }
+        countersOf(postId, publisherId).likes.increment();
+        return true;
+    }
+
+    @Override
+    public void recordShare(long postId, long publisherId, long userId) {
+        pendingShares.add(new EngagementRow(userId, postId));
+        countersOf(postId, publisherId).shares.increment();
+    }
+
+    /**
+     * @return false when the user's report of this post is already waiting to be flushed
+     */
+    @Override
+    public boolean recordReport(long postId, long userId) {
+        if (!pendingReports.add(new EngagementRow(userId, postId))) {
+            return false;
+        }
+        countersOf(postId, 0).reports.increment();
+        return true;
+    }
+
+    @Override
+    public boolean isLikePending(long postId, long userId) {
+        return pendingLikes.contains(new EngagementRow(userId, postId));
+    }
+
+    @Override
+    public boolean isReportPending(long postId, long userId) {
+        return pendingReports.contains(new EngagementRow(userId, postId));
+    }
+
+    @Override
+    public List<Long> pendingLikesOf(long userId) {
+        return pendingPostIds(pendingLikes, userId);
+    }
+
+    @Override
+    public List<Long> pendingSharesOf(long userId) {
+        return pendingPostIds(pendingShares, userId);
+    }
+
+    @Override
+    public List<Long> pendingReportsOf(long userId) {
+        return pendingPostIds(pendingReports, userId);
+    }
+
+    private static List<Long> pendingPostIds(Set<EngagementRow> rows, long userId) {
+        List<Long> postIds = new ArrayList<>();
+        for (EngagementRow row : rows) {
+            if (row.userId() == userId) {
+                postIds.add(row.postId());
+            }
+        }
+        return postIds;
+    }
+
+    private PendingCounters countersOf(long postId, long publisherId) {
+        PendingCounters counters = currentCounters.computeIfAbsent(postId, id -> new PendingCounters());
+        if (publisherId > 0) {
+            counters.publisherId = publisherId;
+        }
+        return counters;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${engagement.flush.ms:1000}")
+    public synchronized void flush() {
+        ConcurrentHashMap<Long, PendingCounters> stragglers = retiredCounters;
+        retiredCounters = currentCounters;
+        currentCounters = new ConcurrentHashMap<>();
+
+        Map<Long, long[]> postDeltas = new HashMap<>();
+        Map<Long, Long> publisherOfPost = new HashMap<>();
+        drain(retiredCounters, postDeltas, publisherOfPost);
+        drain(stragglers, postDeltas, publisherOfPost);
+        List<EngagementRow> likes = new ArrayList<>(pendingLikes);
+        List<EngagementRow> shares = new ArrayList<>(pendingShares);
+        List<EngagementRow> reports = new ArrayList<>(pendingReports);
+        if (postDeltas.isEmpty() && likes.isEmpty() && shares.isEmpty() && reports.isEmpty()) {
+            return;
+        }
+
+        Map<Long, long[]> appliedDeltas;
+        try {
+            appliedDeltas = transactionTemplate.execute(status -> {
+                int[] insertedLikes = jdbcTemplate.batchUpdate(INSERT_LIKED, toArgs(likes));
+                jdbcTemplate.batchUpdate(INSERT_SHARED, toArgs(shares));
+                int[] insertedReports = jdbcTemplate.batchUpdate(INSERT_REPORTED, toArgs(reports));
+                // every share counts, likes & reports only when their row is new
+                Map<Long, long[]> deltas = new HashMap<>();
+                postDeltas.forEach((postId, delta) -> {
+                    if (delta[1] != 0) {
+                        deltas.computeIfAbsent(postId, id -> new long[3])[1] = delta[1];
+                    }
+                });
+                countInserted(likes, insertedLikes, deltas, 0);
+                countInserted(reports, insertedReports, deltas, 2);
+                List<Object[]> counterUpdates = new ArrayList<>(deltas.size());
+                deltas.forEach((postId, delta) -> counterUpdates.add(new Object[]{delta[0], delta[1], delta[2], postId}));
+                jdbcTemplate.batchUpdate(UPDATE_COUNTERS, counterUpdates);
+                return deltas;
+            });
+        } catch (RuntimeException e) {
+            LOGGER.error("engagement flush of {} posts failed, retrying on the next run", postDeltas.size(), e);
+            restore(postDeltas, publisherOfPost);
+            return;
+        }
+        likes.forEach(pendingLikes::remove);
+        shares.forEach(pendingShares::remove);
+        reports.forEach(pendingReports::remove);
+
+        Map<Long, long[]> publisherDeltas = new HashMap<>();
+        appliedDeltas.forEach((postId, delta) -> {
+            Long publisherId = publisherOfPost.get(postId);
+            if (publisherId != null && (delta[0] != 0 || delta[1] != 0)) {
+                long[] publisherDelta = publisherDeltas.computeIfAbsent(publisherId, id -> new long[2]);
+                publisherDelta[0] += delta[0];
+                publisherDelta[1] += delta[1];
+            }
+        });
+        publisherDeltas.forEach((publisherId, delta) ->
+                reputationService.recordEngagement(publisherId, delta[0], delta[1], 0));
+        Cache postsCache = cacheManager.getCache(CacheEnum.POSTS);
+        if (postsCache != null) {
+            appliedDeltas.keySet().forEach(postsCache::evict);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        // two runs so the generation retired by the first one is drained as well
+        flush();
+        flush();
+        LOGGER.info("pending engagement flushed on shutdown");
+    }
+
+    private static void drain(Map<Long, PendingCounters> counters, Map<Long, long[]> postDeltas,
+                              Map<Long, Long> publisherOfPost) {
+        counters.forEach((postId, pending) -> {
+            long likes = pending.likes.sumThenReset();
+            long shares = pending.shares.sumThenReset();
+            long reports = pending.reports.sumThenReset();
+            if (likes == 0 && shares == 0 && reports == 0) {
+                return;
+            }
+            long[] delta = postDeltas.computeIfAbsent(postId, id -> new long[3]);
+            delta[0] += likes;
+            delta[1] += shares;
+            delta[2] += reports;
+            if (pending.publisherId > 0) {
+                publisherOfPost.put(postId, pending.publisherId);
+            }
+        });
+    }
+
+    private void restore(Map<Long, long[]> postDeltas, Map<Long, Long> publisherOfPost) {
+        postDeltas.forEach((postId, delta) -> {
+            PendingCounters counters = countersOf(postId, publisherOfPost.getOrDefault(postId, 0L));
+            counters.likes.add(delta[0]);
+            counters.shares.add(delta[1]);
+            counters.reports.add(delta[2]);
+        });
+    }
+
+    private static void countInserted(List<EngagementRow> rows, int[] updateCounts, Map<Long, long[]> deltas, int column) {
+        for (int i = 0; i < rows.size(); i++) {
+            // 0 when INSERT IGNORE dropped the row as a duplicate
+            if (updateCounts[i] > 0 || updateCounts[i] == Statement.SUCCESS_NO_INFO) {
+                deltas.computeIfAbsent(rows.get(i).postId(), id -> new long[3])[column]++;
+            }
+        }
+    }
+
+    private static List<Object[]> toArgs(List<EngagementRow> rows) {
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (EngagementRow row : rows) {
+            args.add(new Object[]{row.userId(), row.postId()});
+        }
+        return args;
+    }
+
+    private static final class PendingCounters {
+        private final LongAdder likes = new LongAdder();
+        private final LongAdder shares = new LongAdder();
+        private final LongAdder reports = new LongAdder();
+        private volatile long publisherId;
+    }
+
+    private record EngagementRow(long userId, long postId) {
+    }
+}
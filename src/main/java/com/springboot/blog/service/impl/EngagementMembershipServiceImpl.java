@@ -0,0 +1,150 @@
+package com.springboot.blog.service.impl;
+
+import com.springboot.blog.repository.UserRepository;
+import com.springboot.blog.service.EngagementCounterService;
+import com.springboot.blog.service.EngagementMembershipService;
+import com.springboot.blog.utils.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers "has this user liked/shared/reported this post" without mapping the user.
+ *
+ * Engagement still waiting in the write-behind buffer counts, everything else is answered by an
+ * existence query on the (user_id, post_id) primary key.
+ *
+ * With {@code engagement.membership.local-filters} on, each recently active user also gets one
+ * Bloom filter per engagement kind, built from the post ids of the matching join table, and a miss
+ * in the filter is a definite no that costs no query. The filters only see engagement recorded on
+ * this node, so a miss can only be trusted when this is the only node: with several nodes a like
+ * made elsewhere would be missed and the duplicate accepted, hence the option is off by default.
+ * Filters of the least recently used users are dropped once {@code engagement.membership.users}
+ * users are cached.
+ */
+@Service
+@RequiredArgsConstructor
+public class EngagementMembershipServiceImpl implements EngagementMembershipService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    // head room so a filter stays accurate while the user keeps engaging
+    private static final int MIN_EXPECTED_INSERTIONS = 256;
+
+    private final UserRepository userRepository;
+    private final EngagementCounterService engagementCounterService;
+
+    @Value("${engagement.membership.users:10000}")
+    private int maxCachedUsers;
+    @Value("${engagement.membership.local-filters:false}")
+    private boolean localFilters;
+
+    private final Map<Long, UserFilters> filtersByUser = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, UserFilters> eldest) {
+                    return size() > maxCachedUsers;
+                }
+            });
+
+    @Override
+    public boolean hasLiked(long userId, long postId) {
+        if (engagementCounterService.isLikePending(postId, userId)) {
+            return true;
+        }
+        return (!localFilters || filtersOf(userId).liked(userId).mightContain(postId))
+                && userRepository.existsLikedPost(userId, postId) > 0;
+    }
+
+    @Override
+    public boolean hasShared(long userId, long postId) {
+        return (!localFilters || filtersOf(userId).shared(userId).mightContain(postId))
+                && userRepository.existsSharedPost(userId, postId) > 0;
+    }
+
+    @Override
+    public boolean hasReported(long userId, long postId) {
+        if (engagementCounterService.isReportPending(postId, userId)) {
+            return true;
+        }
+        return (!localFilters || filtersOf(userId).reported(userId).mightContain(postId))
+                && userRepository.existsReportedPost(userId, postId) > 0;
+    }
+
+    @Override
+    public void markLiked(long userId, long postId) {
+        if (localFilters) {
+            filtersOf(userId).liked(userId).add(postId);
+        }
+    }
+
+    @Override
+    public void markShared(long userId, long postId) {
+        if (localFilters) {
+            filtersOf(userId).shared(userId).add(postId);
+        }
+    }
+
+    @Override
+    public void markReported(long userId, long postId) {
+        if (localFilters) {
+            filtersOf(userId).reported(userId).add(postId);
+        }
+    }
+
+    private UserFilters filtersOf(long userId) {
+        return filtersByUser.computeIfAbsent(userId, id -> new UserFilters());
+    }
+
+    private static BloomFilter build(List<Long> postIds) {
+        BloomFilter filter = new BloomFilter(Math.max(postIds.size() * 2, MIN_EXPECTED_INSERTIONS), FALSE_POSITIVE_RATE);
+        for (Long postId : postIds) {
+            filter.add(postId);
+        }
+        return filter;
+    }
+
+    /**
+     * Filters are built once, on first use of each kind: a user who only likes never loads their reports.
+     */
+    private final class UserFilters {
+        private volatile BloomFilter liked;
+        private volatile BloomFilter shared;
+        private volatile BloomFilter reported;
+
+        private synchronized BloomFilter liked(long userId) {
+            if (liked == null) {
+                liked = load(engagementCounterService.pendingLikesOf(userId), userRepository.findLikedPostIds(userId));
+            }
+            return liked;
+        }
+
+        private synchronized BloomFilter shared(long userId) {
+            if (shared == null) {
+                shared = load(engagementCounterService.pendingSharesOf(userId), userRepository.findSharedPostIds(userId));
+            }
+            return shared;
+        }
+
+        private synchronized BloomFilter reported(long userId) {
+            if (reported == null) {
+                reported = load(engagementCounterService.pendingReportsOf(userId), userRepository.findReportedPostIds(userId));
+            }
+            return reported;
+        }
+
+        /**
+         * Pending rows are read before the table: a row flushed in between is then seen by the
+         * table read, and a filter built from the table alone would miss it forever once flushed.
+         */
+        private BloomFilter load(List<Long> pendingPostIds, List<Long> storedPostIds) {
+            BloomFilter filter = build(storedPostIds);
+            pendingPostIds.forEach(filter::add);
+            return filter;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.springboot.blog.service.impl;
+
+import com.springboot.blog.annotations.GetExecutionTime;
+import com.springboot.blog.payload.CachedFeed;
+import com.springboot.blog.payload.PostSummary;
+import com.springboot.blog.payload.PostSummaryDto;
+import com.springboot.blog.repository.PostRepository;
+import com.springboot.blog.repository.UserRepository;
+import com.springboot.blog.service.FeedService;
+import com.springboot.blog.service.NowTrendingService;
+import com.springboot.blog.service.ReputationService;
+import com.springboot.blog.utils.AppEnums.CacheEnum;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user feed timelines kept as Redis sorted sets of post ids scored by publish time.
+ *
+ * The work is done once per event instead of once per reader: a new post is pushed to
+ * the timeline of every follower of its publisher, a trending post is pushed to every
+ * user with one of its tags among their favourite genres, and a post of a distinguished
+ * publisher is pushed once to a shared timeline that every feed read merges in (pushing
+ * those to every user would make a single post cost as many writes as there are users).
+ * Timelines are trimmed to the newest {@code feed.timeline.size} entries, reading a feed
+ * is two bounded range reads plus one summary lookup for the ids found.
+ *
+ * Fan-out only covers posts published after the timeline exists, so the first read of a user
+ * without a backfill marker builds their timeline from the recent posts of the publishers they
+ * follow & the trending posts in their favourite genres, following a publisher pushes that
+ * publisher's recent posts and unfollowing removes them.
+ */
+@Service
+@RequiredArgsConstructor
+public class FeedServiceImpl implements FeedService {
+
+    private static final String TIMELINE_KEY_PREFIX = "feed:timeline:";
+    private static final String DISTINGUISHED_TIMELINE_KEY = "feed:distinguished";
+    // set once a timeline has been backfilled, fan-out keeps it up to date from then on
+    private static final String BACKFILLED_KEY_PREFIX = "feed:backfilled:";
+    private static final int TRENDING_POSTS_TO_FAN_OUT = 25;
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final ReputationService reputationService;
+    private final NowTrendingService nowTrendingService;
+    private final CacheManager cacheManager;
+    // trending posts already pushed, replaced by the current trending list on every run
+    private volatile Set<Long> fannedOutTrendingPosts = Collections.emptySet();
+
+    @Value("${distinguished_publisher_threshold}")
+    private double DISTINGUISHED_PUBLISHER_THRESHOLD;
+    @Value("${feed.timeline.size:500}")
+    private int timelineSize;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FeedServiceImpl.class);
+
+    private static String timelineKey(long userId) {
+        return TIMELINE_KEY_PREFIX + userId;
+    }
+
+    /**
+     * Merges the user's timeline with the distinguished publishers' one, newest first,
+     * and resolves the ids to summaries. Posts deleted or blocked since they were pushed are skipped.
+     */
+    @Override
+    @GetExecutionTime
+    public Set<PostSummaryDto> readFeed(long userId, int numOfPosts) {
+        if (numOfPosts <= 0) {
+            return new LinkedHashSet<>();
+        }
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(BACKFILLED_KEY_PREFIX + userId))) {
+            backfillTimeline(userId);
+        }
+        List<TypedTuple<String>> entries = new ArrayList<>();
+        entries.addAll(rangeOf(timelineKey(userId), numOfPosts));
+        entries.addAll(rangeOf(DISTINGUISHED_TIMELINE_KEY, numOfPosts));
+        entries.sort(Comparator.comparing((TypedTuple<String> entry) -> entry.getScore(),
+                Comparator.nullsLast(Comparator.reverseOrder())));
+
+        LinkedHashSet<Long> postIds = new LinkedHashSet<>();
+        for (TypedTuple<String> entry : entries) {
+            if (postIds.size() >= numOfPosts) {
+                break;
+            }
+            postIds.add(Long.parseLong(entry.getValue()));
+        }
+        if (postIds.isEmpty()) {
+            return new LinkedHashSet<>();
+        }
+        Map<Long, PostSummary> summaries = postRepository.findActiveSummariesByIds(postIds).stream()
+                .collect(Collectors.toMap(PostSummary::getId, Function.identity()));
+        Set<PostSummaryDto> feed = new LinkedHashSet<>();
+        for (Long postId : postIds) {
+            PostSummary summary = summaries.get(postId);
+            if (summary != null) {
+                feed.add(PostSummaryDto.from(summary));
+            }
+        }
+        return feed;
+    }
+
+    @Override
+    public CachedFeed computeCachedFeed(long userId, int numOfPosts) {
+        return new CachedFeed(readFeed(userId, numOfPosts), System.currentTimeMillis());
+    }
+
+    /**
+     * Recomputes a feed that readers found past its soft expiry & replaces the cached copy,
+     * readers keep being served the previous one until then.
+     */
+    @Override
+    @Async("feedRefreshExecutor")
+    public CompletableFuture<Void> refreshCachedFeed(long userId, int numOfPosts) {
+        Cache feedCache = cacheManager.getCache(CacheEnum.USER_RECOMMENDED_POSTS);
+        feedCache.put(userId, computeCachedFeed(userId, numOfPosts));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private List<TypedTuple<String>> rangeOf(String key, int numOfPosts) {
+        Set<TypedTuple<String>> range = redisTemplate.opsForZSet().reverseRangeWithScores(key, 0, numOfPosts - 1);
+        return range == null ? Collections.emptyList() : new ArrayList<>(range);
+    }
+
+    /**
+     * Pushes the recent active posts of every followed publisher, and the trending posts tagged with
+     * one of the user's favourite genres, to the user's timeline.
+     */
+    private void backfillTimeline(long userId) {
+        Map<Long, Long> publishTimes = new HashMap<>();
+        List<Long> followingIds = userRepository.findFollowingIdsByUserId(userId);
+        if (!followingIds.isEmpty()) {
+            for (PostSummary post : postRepository.findRecentActiveSummariesByPublishers(
+                    followingIds, PageRequest.of(0, timelineSize))) {
+                publishTimes.put(post.getId(), post.getPublishDate().getTime());
+            }
+        }
+        Set<String> favGenres = userRepository.findFavGenresByUserId(userId);
+        for (PostSummaryDto post : nowTrendingService.getWeeklyTrending(TRENDING_POSTS_TO_FAN_OUT)) {
+            if (post.getTags() != null && post.getTags().stream().anyMatch(favGenres::contains)) {
+                publishTimes.put(post.getId(), post.getPublishDate().getTime());
+            }
+        }
+        pushAll(userId, publishTimes);
+        redisTemplate.opsForValue().set(BACKFILLED_KEY_PREFIX + userId, String.valueOf(System.currentTimeMillis()));
+        LOGGER.info("timeline of user {} backfilled from {} followed publishers", userId, followingIds.size());
+    }
+
+    /**
+     * Called when the user starts following the publisher, so their existing posts show up
+     * without waiting for the next one.
+     */
+    @Override
+    public void seedTimeline(long userId, long publisherId) {
+        Map<Long, Long> publishTimes = new HashMap<>();
+        for (PostSummary post : postRepository.findRecentActiveSummariesByPublishers(
+                List.of(publisherId), PageRequest.of(0, timelineSize))) {
+            publishTimes.put(post.getId(), post.getPublishDate().getTime());
+        }
+        pushAll(userId, publishTimes);
+    }
+
+    /**
+     * Called when the user stops following the publisher: removes the publisher's recent posts from the
+     * user's timeline, which has no ttl and would keep showing them until newer posts push them out.
+     * A post of theirs that was there as a trending post is removed as well.
+     */
+    @Override
+    public void unseedTimeline(long userId, long publisherId) {
+        List<PostSummary> posts = postRepository.findRecentActiveSummariesByPublishers(
+                List.of(publisherId), PageRequest.of(0, timelineSize));
+        if (posts.isEmpty()) {
+            return;
+        }
+        Object[] members = posts.stream().map(post -> String.valueOf(post.getId())).toArray();
+        redisTemplate.opsForZSet().remove(timelineKey(userId), members);
+    }
+
+    /**
+     * Called once an active post is saved: pushes it to the followers of its publisher,
+     * and to the shared timeline when the publisher is distinguished.
+     */
+    @Override
+    @GetExecutionTime
+    @Async("asyncTaskExecutor")
+    public void fanOutPost(long postId, long publisherId, long publishTime) {
+        List<Long> followerIds = userRepository.findFollowerIdsByUserId(publisherId);
+        push(followerIds, postId, publishTime);
+        if (reputationService.reputationScore(publisherId) >= DISTINGUISHED_PUBLISHER_THRESHOLD) {
+            redisTemplate.opsForZSet().add(DISTINGUISHED_TIMELINE_KEY, String.valueOf(postId), publishTime);
+            redisTemplate.opsForZSet().removeRange(DISTINGUISHED_TIMELINE_KEY, 0, -(timelineSize + 1));
+        }
+        LOGGER.info("post {} pushed to {} follower timelines", postId, followerIds.size());
+    }
+
+    /**
+     * Pushes newly trending posts of the week to the users that follow one of their tags.
+     * Posts still trending since the previous run are not pushed again.
+     */
+    @Override
+    @GetExecutionTime
+    @Scheduled(initialDelayString = "${feed.trending.fanout.ms:600000}", fixedDelayString = "${feed.trending.fanout.ms:600000}")
+    public void fanOutTrendingPosts() {
+        List<PostSummaryDto> trendyPosts = nowTrendingService.getWeeklyTrending(TRENDING_POSTS_TO_FAN_OUT);
+        Set<Long> previouslyFannedOut = fannedOutTrendingPosts;
+        Set<Long> trendingPostIds = new HashSet<>();
+        for (PostSummaryDto post : trendyPosts) {
+            trendingPostIds.add(post.getId());
+            if (previouslyFannedOut.contains(post.getId()) || post.getTags() == null || post.getTags().isEmpty()) {
+                continue;
+            }
+            List<Long> userIds = userRepository.findUserIdsByFavGenres(post.getTags());
+            push(userIds, post.getId(), post.getPublishDate().getTime());
+        }
+        fannedOutTrendingPosts = trendingPostIds;
+    }
+
+    /**
+     * Adds the post to each timeline and trims it, pipelined so that a large audience costs one round trip.
+     */
+    private void push(Collection<Long> userIds, long postId, long publishTime) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        String member = String.valueOf(postId);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (Long userId : userIds) {
+                String key = timelineKey(userId);
+                stringConnection.zAdd(key, publishTime, member);
+                stringConnection.zRemRange(key, 0, -(timelineSize + 1));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Adds many posts to one timeline and trims it, in a single round trip.
+     */
+    private void pushAll(long userId, Map<Long, Long> publishTimes) {
+        if (publishTimes.isEmpty()) {
+            return;
+        }
+        String key = timelineKey(userId);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            publishTimes.forEach((postId, publishTime) -> stringConnection.zAdd(key, publishTime, String.valueOf(postId)));
+            stringConnection.zRemRange(key, 0, -(timelineSize + 1));
+            return null;
+        });
+    }
+}
@@ -3,7 +3,7 @@ package com.springboot.blog.service.impl;
 import com.springboot.blog.annotations.GetExecutionTime;
 import com.springboot.blog.entity.UserEntity;
 import com.springboot.blog.exception.BlogAPIException;
-import com.springboot.blog.payload.PostDto;
+import com.springboot.blog.payload.PostSummaryDto;
 import com.springboot.blog.repository.UserRepository;
 import com.springboot.blog.service.NotificationService;
 import com.springboot.blog.service.UserService;
@@ -40,7 +40,7 @@ public class NotificationServiceImpl implements NotificationService {
     public void sendRecommendedPostNotifications() throws ExecutionException, InterruptedException {
         Set<UserEntity> userList = userRepository.findAllUsers();
         for (UserEntity user : userList) {
-            Set<PostDto> recommendedPosts = userService.getRecommendedPosts(user.getId());
+            Set<PostSummaryDto> recommendedPosts = userService.getRecommendedPosts(user.getId());
             if (!recommendedPosts.isEmpty()) {
                 String message = generateHtmlEmailContent(recommendedPosts);
                 sendEmail(user.getEmail(), user.getName() + ", Your Customized Weekly Roundup is Here!", message);
@@ -55,7 +55,7 @@ public class NotificationServiceImpl implements NotificationService {
      * @return HTML content for the email.
      */
 
-    private String generateHtmlEmailContent(Set<PostDto> recommendedPosts) {
+    private String generateHtmlEmailContent(Set<PostSummaryDto> recommendedPosts) {
         // Amazing and fancy HTML template for the email with dynamically generated images
         String htmlTemplate = "<html>" +
                 "<head>" +
@@ -93,7 +93,7 @@ public class NotificationServiceImpl implements NotificationService {
                 "<ul>";
 
         // adding recommended posts to the HTML
-        for (PostDto post : recommendedPosts) {
+        for (PostSummaryDto post : recommendedPosts) {
             // fetch a unique designer image for each post
             String imageUrl = getRandomImageUrl();
 
@@ -1,43 +1,126 @@
 package com.springboot.blog.service.impl;
 
+import com.springboot.blog.annotations.GetExecutionTime;
 import com.springboot.blog.entity.Post;
-import com.springboot.blog.payload.PostDto;
+import com.springboot.blog.payload.PostSummary;
+import com.springboot.blog.payload.PostSummaryDto;
 import com.springboot.blog.repository.PostRepository;
 import com.springboot.blog.service.NowTrendingService;
-import lombok.RequiredArgsConstructor;
+import com.springboot.blog.utils.AppEnums.ProfanityStatus;
+import com.springboot.blog.utils.TrendingEngine;
 import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
-
+/**
+ * Trending posts are ranked in memory by {@link TrendingEngine} on the engagement they
+ * received inside each window: posts, likes, shares & comments update the rankings as
+ * they happen and reads never touch MySQL.
+ * The engine is warmed from the database on startup and periodically reloaded so
+ * that several nodes converge on the same counters. Until the first load completes
+ * the trending queries are served by the database.
+ */
 @Service
-@RequiredArgsConstructor
 public class NowTrendingServiceImpl implements NowTrendingService {
 
     private final ModelMapper modelMapper;
     private final PostRepository postRepository;
+    private final TrendingEngine trendingEngine;
+    private volatile boolean engineReady = false;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NowTrendingServiceImpl.class);
+
+    public NowTrendingServiceImpl(ModelMapper modelMapper, PostRepository postRepository) {
+        this.modelMapper = modelMapper;
+        this.postRepository = postRepository;
+        this.trendingEngine = new TrendingEngine(ZoneId.systemDefault(), post -> map(post, PostSummaryDto.class));
+    }
 
     private <D, T> D map(final T entity, Class<D> dtoClass) {
         return modelMapper.map(entity, dtoClass);
     }
-    private <D, T> List<D> mapAll(final List<T> entityList, Class<D> dtoClass) {
-        return entityList.stream().map(entity -> map(entity, dtoClass)).collect(Collectors.toList());
+    private List<PostSummaryDto> mapAll(final List<PostSummary> summaries) {
+        return summaries.stream().map(PostSummaryDto::from).collect(Collectors.toList());
+    }
+
+    private List<PostSummaryDto> queryTrending(TrendingEngine.Window window, int numOfPosts) {
+        Date since = new Date(trendingEngine.cutoff(window, System.currentTimeMillis()));
+        return mapAll(postRepository.findTrendingSummaries(since, PageRequest.of(0, numOfPosts)));
+    }
+
+    @Override
+    public List<PostSummaryDto> getDailyTrending(int numOfPosts) {
+        if (engineReady) {
+            return trendingEngine.top(TrendingEngine.Window.DAILY, numOfPosts, System.currentTimeMillis());
+        }
+        return queryTrending(TrendingEngine.Window.DAILY, numOfPosts);
+    }
+    @Override
+    public List<PostSummaryDto> getWeeklyTrending(int numOfPosts) {
+        if (engineReady) {
+            return trendingEngine.top(TrendingEngine.Window.WEEKLY, numOfPosts, System.currentTimeMillis());
+        }
+        return queryTrending(TrendingEngine.Window.WEEKLY, numOfPosts);
+    }
+    @Override
+    public List<PostSummaryDto> getMonthlyTrending(int numOfPosts) {
+        if (engineReady) {
+            return trendingEngine.top(TrendingEngine.Window.MONTHLY, numOfPosts, System.currentTimeMillis());
+        }
+        return queryTrending(TrendingEngine.Window.MONTHLY, numOfPosts);
     }
 
+    /**
+     * Called on create & update, posts that are no longer active leave every ranking.
+     */
     @Override
-    public List<PostDto> getDailyTrending(int numOfPosts) {
-        List<Post> listOfDailyPosts = postRepository.findDailyTrendingPosts(numOfPosts);
-        return mapAll(listOfDailyPosts, PostDto.class);
+    public void recordPostPublished(Post post) {
+        if (ProfanityStatus.ACTIVE.equals(post.getProfanityStatus())) {
+            trendingEngine.upsert(map(post, PostSummaryDto.class), System.currentTimeMillis());
+        } else {
+            trendingEngine.remove(post.getId());
+        }
     }
+
     @Override
-    public List<PostDto> getWeeklyTrending(int numOfPosts) {
-        List<Post> listOfWeeklyPosts = postRepository.findWeeklyTrendingPosts(numOfPosts);
-        return mapAll(listOfWeeklyPosts, PostDto.class);
+    public void recordPostRemoved(long postId) {
+        trendingEngine.remove(postId);
     }
+
     @Override
-    public List<PostDto> getMonthlyTrending(int numOfPosts) {
-        List<Post> listOfMonthlyPosts = postRepository.findMonthlyTrendingPosts(numOfPosts);
-        return mapAll(listOfMonthlyPosts, PostDto.class);
+    public void recordEngagement(long postId, long likesDelta, long sharesDelta, long commentsDelta) {
+        trendingEngine.addEngagement(postId, likesDelta, sharesDelta, commentsDelta, System.currentTimeMillis());
+    }
+
+    /**
+     * Loads the active posts of the monthly window, on startup and then at a fixed delay
+     * to pick up engagement recorded by other nodes.
+     */
+    @GetExecutionTime
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${trending.reload.ms:600000}", fixedDelayString = "${trending.reload.ms:600000}")
+    public void reloadTrendingEngine() {
+        long now = System.currentTimeMillis();
+        Date since = new Date(trendingEngine.cutoff(TrendingEngine.Window.MONTHLY, now));
+        List<PostSummaryDto> recentPosts = mapAll(postRepository.findActiveSummariesPublishedSince(since));
+        trendingEngine.reload(recentPosts, now);
+        engineReady = true;
+        LOGGER.info("trending engine loaded {} posts", trendingEngine.size());
+    }
+
+    // rolls the hourly engagement buckets, the engine only does work when the hour changes
+    @Scheduled(fixedRate = 60 * 1000)
+    public void expireTrendingWindows() {
+        trendingEngine.expire(System.currentTimeMillis());
     }
 }
@@ -0,0 +1,160 @@
+package com.springboot.blog.service.impl;
+
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.repository.PostRepository;
+import com.springboot.blog.service.FeedService;
+import com.springboot.blog.service.NowTrendingService;
+import com.springboot.blog.service.PostModerationService;
+import com.springboot.blog.service.ProfanityService;
+import com.springboot.blog.service.ReputationService;
+import com.springboot.blog.utils.AppEnums.ProfanityStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Finalises posts created as Pending: the sentiment is computed on the bounded moderationTaskExecutor,
+ * then the profanity verdict is stored and the post is published to reputation, trending & feeds.
+ * Submissions happen once the creating transaction has committed. When the pool is saturated the
+ * submission is dropped and the post stays Pending, the moderation never runs on the request thread.
+ * Pending posts left behind (restart, saturated pool, sentiment model not ready, failed classification or
+ * moderation) are picked up by a periodic sweep; a post is never finalised with the degraded "Neutral".
+ *
+ * The verdict is always stored in a transaction of its own: a submission made from {@code afterCommit}
+ * still sees the committed transaction of the creating request, joining it would silently lose the save
+ * while reputation & trending had already counted the post, and the sweep would count it again.
+ */
+@Service
+public class PostModerationServiceImpl implements PostModerationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostModerationServiceImpl.class);
+
+    private final PostRepository postRepository;
+    private final SentimentAnalysisService sentimentAnalysisService;
+    private final ProfanityService profanityService;
+    private final ReputationService reputationService;
+    private final NowTrendingService nowTrendingService;
+    private final FeedService feedService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor moderationTaskExecutor;
+    // posts queued or being moderated on this node
+    private final Set<Long> queuedPosts = ConcurrentHashMap.newKeySet();
+
+    @Value("${moderation.pending.grace-ms:60000}")
+    private long pendingGraceMillis;
+    @Value("${moderation.sweep.batch-size:500}")
+    private int sweepBatchSize;
+
+    public PostModerationServiceImpl(PostRepository postRepository, SentimentAnalysisService sentimentAnalysisService,
+                                     ProfanityService profanityService, ReputationService reputationService,
+                                     NowTrendingService nowTrendingService, FeedService feedService,
+                                     PlatformTransactionManager transactionManager,
+                                     @Qualifier("moderationTaskExecutor") Executor moderationTaskExecutor) {
+        this.postRepository = postRepository;
+        this.sentimentAnalysisService = sentimentAnalysisService;
+        this.profanityService = profanityService;
+        this.reputationService = reputationService;
+        this.nowTrendingService = nowTrendingService;
+        this.feedService = feedService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.moderationTaskExecutor = moderationTaskExecutor;
+    }
+
+    @Override
+    public void submit(long postId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // the worker must find the committed row
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(postId);
+                }
+            });
+        } else {
+            enqueue(postId);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${moderation.sweep.ms:60000}")
+    public void resubmitPendingPosts() {
+        Date createdBefore = new Date(System.currentTimeMillis() - pendingGraceMillis);
+        for (Long postId : postRepository.findPendingPostIds(createdBefore, PageRequest.of(0, sweepBatchSize))) {
+            enqueue(postId);
+        }
+    }
+
+    private void enqueue(long postId) {
+        if (!queuedPosts.add(postId)) {
+            return;
+        }
+        try {
+            moderationTaskExecutor.execute(() -> {
+                try {
+                    moderate(postId);
+                } catch (RuntimeException e) {
+                    LOGGER.error("moderation of post {} failed, it stays pending until the next sweep", postId, e);
+                } finally {
+                    queuedPosts.remove(postId);
+                }
+            });
+        } catch (RejectedExecutionException e) { // saturated pool or shutting down
+            queuedPosts.remove(postId);
+            LOGGER.warn("moderation of post {} rejected, it stays pending until the next sweep", postId);
+        }
+    }
+
+    private void moderate(long postId) {
+        if (!sentimentAnalysisService.isModelReady()) {
+            return; // a degraded "Neutral" would be final, wait for the sweep once the model is ready
+        }
+        Post pendingPost = postRepository.findById(postId).orElse(null);
+        if (pendingPost == null || !ProfanityStatus.PENDING.equals(pendingPost.getProfanityStatus())) {
+            return;
+        }
+        // the parse runs without a transaction or connection held; no fallback, a failure leaves the post pending
+        String postSentiment = sentimentAnalysisService.analyzeSentimentOrFail(pendingPost.getContent());
+        transactionTemplate.executeWithoutResult(status -> publishVerdict(postId, postSentiment));
+    }
+
+    private void publishVerdict(long postId, String postSentiment) {
+        // every node sweeps the pending posts, the lock makes a second one wait and then see the verdict
+        Post post = postRepository.findByIdForUpdate(postId).orElse(null);
+        if (post == null || !ProfanityStatus.PENDING.equals(post.getProfanityStatus())) {
+            return; // deleted or finalised by another node meanwhile
+        }
+        post.setPostSentiment(postSentiment);
+        try {
+            profanityService.profanityMarker(post);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("could not read the publisher reputation", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while moderating post " + postId, e);
+        }
+        Post moderatedPost = postRepository.save(post);
+        reputationService.recordPostPublished(moderatedPost);
+        nowTrendingService.recordPostPublished(moderatedPost);
+        if (ProfanityStatus.ACTIVE.equals(moderatedPost.getProfanityStatus())) {
+            feedService.fanOutPost(moderatedPost.getId(), moderatedPost.getPublisherID().getId(),
+                    moderatedPost.getPublishDate().getTime());
+        }
+    }
+}
@@ -6,10 +6,18 @@ import com.springboot.blog.exception.BlogAPIException;
 import com.springboot.blog.exception.ResourceNotFoundException;
 import com.springboot.blog.payload.PostDto;
 import com.springboot.blog.payload.PostResponse;
+import com.springboot.blog.payload.PostSummary;
+import com.springboot.blog.payload.PostSummaryDto;
 import com.springboot.blog.repository.PostRepository;
 import com.springboot.blog.repository.UserRepository;
+import com.springboot.blog.service.EngagementCounterService;
+import com.springboot.blog.service.EngagementMembershipService;
+import com.springboot.blog.service.FeedService;
+import com.springboot.blog.service.NowTrendingService;
+import com.springboot.blog.service.PostModerationService;
 import com.springboot.blog.service.PostService;
 import com.springboot.blog.service.ProfanityService;
+import com.springboot.blog.service.ReputationService;
 import com.springboot.blog.utils.AppEnums.ErrorCode;
 import com.springboot.blog.utils.AppEnums.ProfanityStatus;
 import jakarta.persistence.EntityManager;
@@ -43,8 +51,13 @@ public class PostServiceImpl implements PostService {
     private final CacheManager cacheManager;
     private final UserRepository userRepository;
     private final PostRepository postRepository;
+    private final FeedService feedService;
+    private final EngagementCounterService engagementCounterService;
+    private final EngagementMembershipService engagementMembershipService;
     private final ProfanityService profanityService;
-    private final SentimentAnalysisService sentimentAnalysisService;
+    private final ReputationService reputationService;
+    private final NowTrendingService nowTrendingService;
+    private final PostModerationService postModerationService;
 
     private UserEntity getCurrentUser() {
         String Username = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -53,14 +66,18 @@ public class PostServiceImpl implements PostService {
                         "the user was not found with username: " + Username, ErrorCode.USER_NOT_FOUND));
     }
 
+    /**
+     * Stores the post as Pending and returns right away, the sentiment & profanity verdict are
+     * computed by {@link PostModerationService} once the transaction commits. Readers only see
+     * the post when it turns Active.
+     */
     @Override
     @Transactional
     public PostDto createPost(PostDto postDto) throws ExecutionException, InterruptedException {
-        String postSentiment = sentimentAnalysisService.analyzeSentiment(postDto.getContent());
         Post post = mapToEntity(postDto);
         post.setPublishDate(new Date());
         post.setNumOfReports((long) 0);
-        post.setPostSentiment(postSentiment);
+        post.setProfanityStatus(ProfanityStatus.PENDING);
         UserEntity currentUser = getCurrentUser();
         post.setPublisherID(currentUser);
         // Detach the user entity
@@ -68,12 +85,11 @@ public class PostServiceImpl implements PostService {
 
         // Add the post to the user's set of posts
         currentUser.getPosts().add(post);
-        // Perform profanity check
-        post = profanityService.profanityMarker(post);
         // Merge the post to reattach it
         // post = entityManager.merge(post);
 
         Post newPost = postRepository.save(post);
+        postModerationService.submit(newPost.getId());
         PostDto postResponse = mapToDTO(newPost);
         return postResponse;
     }
@@ -85,11 +101,16 @@ public class PostServiceImpl implements PostService {
                 : Sort.by(sortBy).descending();
         // create Pageable instance
         Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
-        Page<Post> posts = postRepository.findAll(pageable);
+        Page<PostSummary> posts = postRepository.findAllSummaries(pageable);
         // get content for page/pagination object
-        List<Post> listOfPosts = posts.getContent();
-        List<PostDto> listOfPostDto = listOfPosts.stream().map(post -> mapToDTO(post)).collect(Collectors.toList());
-        List<PostDto> profanityFreePosts = profanityService.filterPostProfanity(listOfPostDto);
+        List<PostSummary> listOfPosts = posts.getContent();
+        // verdicts are stored at write time, only stale ones are loaded in full & re-moderated here
+        Map<Long, String> remoderatedStatuses = remoderateStalePosts(listOfPosts);
+        List<PostSummaryDto> profanityFreePosts = listOfPosts.stream()
+                .filter(post -> ProfanityStatus.ACTIVE.equals(
+                        remoderatedStatuses.getOrDefault(post.getId(), post.getProfanityStatus())))
+                .map(PostSummaryDto::from)
+                .collect(Collectors.toList());
 
         PostResponse postResponse = new PostResponse();
         postResponse.setContent(profanityFreePosts);
@@ -103,10 +124,14 @@ public class PostServiceImpl implements PostService {
     }
 
     @Override
-    @Cacheable(cacheNames = "posts", key = "#id")
+    @Cacheable(cacheNames = "posts", key = "#id", sync = true)
     public PostDto getPostById(long id) {
         Post post = postRepository.findById(id).orElseThrow(
                 () -> new ResourceNotFoundException("Post", "id", id));
+        if (Objects.equals(post.getProfanityStatus(), ProfanityStatus.PENDING)) {
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST,
+                    "The post is still being reviewed, please try again shortly.", ErrorCode.POST_PENDING);
+        }
         if (!Objects.equals(post.getProfanityStatus(), ProfanityStatus.ACTIVE)) {
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,
                     "The post has been blocked due to its inappropriate content.", ErrorCode.POST_BLOCKED);
@@ -114,15 +139,26 @@ public class PostServiceImpl implements PostService {
         return mapToDTO(post);
     }
 
+    /**
+     * A post still pending moderation keeps its status & is not cached, the moderation workers give
+     * the edited content its verdict.
+     */
     @Override
-    @CachePut(cacheNames = "posts", key = "#id")
+    @CachePut(cacheNames = "posts", key = "#id", unless = "#result.profanityStatus == 'Pending'")
     public PostDto updatePost(PostDto postDto, long id) throws ExecutionException, InterruptedException {
         Post post = postRepository.findById(id).orElseThrow(
                 () -> new ResourceNotFoundException("Post", "id", id));
         post.setTitle(postDto.getTitle());
         post.setDescription(postDto.getDescription());
         post.setContent(postDto.getContent());
+        if (ProfanityStatus.PENDING.equals(post.getProfanityStatus())) {
+            return mapToDTO(postRepository.save(post));
+        }
+        String previousStatus = post.getProfanityStatus();
         Post updatedPost = postRepository.save(profanityService.profanityMarker(post));
+        reputationService.recordModerationVerdict(updatedPost.getPublisherID().getId(),
+                previousStatus, updatedPost.getProfanityStatus());
+        nowTrendingService.recordPostPublished(updatedPost);
         return mapToDTO(updatedPost);
     }
 
@@ -144,66 +180,85 @@ public class PostServiceImpl implements PostService {
         userRepository.save(user);
         // Delete the post & persist to the database
         postRepository.delete(post);
+        if (!ProfanityStatus.PENDING.equals(post.getProfanityStatus())) { // pending posts were never counted
+            reputationService.recordPostRemoved(post);
+        }
+        nowTrendingService.recordPostRemoved(postId);
         // evictPostCache(postId);
     }
 
+    /**
+     * Likes, shares & reports only touch the in-memory write-behind buffer,
+     * see {@link EngagementCounterService} for how they reach the database.
+     */
     @Override
-    @Transactional
-    @CacheEvict(value = "posts", key = "#postId")
-    public void incrementLikes(Long postId, String username) {
-        Post post = postRepository.findById(postId).orElseThrow(
-                () -> new ResourceNotFoundException("Post", "id", postId));
-        UserEntity currUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new BlogAPIException(HttpStatus.BAD_REQUEST,
-                        "the user was not found with username: " + username, ErrorCode.USER_NOT_FOUND));
-        currUser.getLikedPosts().add(post);
-        post.setLikesCount(post.getLikesCount() + 1);
-        userRepository.save(currUser);
-        postRepository.save(post);
-        // evictPostCache(postId);
+    public void incrementLikes(Long postId, long userId) {
+        long publisherId = findPublisherId(postId);
+        if (!engagementCounterService.recordLike(postId, publisherId, userId)) {
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "You cannot like the same post twice");
+        }
+        engagementMembershipService.markLiked(userId, postId);
+        nowTrendingService.recordEngagement(postId, 1, 0, 0);
     }
 
     @Override
-    @Transactional
-    @CacheEvict(value = "posts", key = "#postId")
-    public void incrementShares(Long postId, String username) {
-        Post post = postRepository.findById(postId).orElseThrow(
-                () -> new ResourceNotFoundException("Post", "id", postId));
-        UserEntity currUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new BlogAPIException(HttpStatus.BAD_REQUEST,
-                        "the user was not found with username: " + username, ErrorCode.USER_NOT_FOUND));
-        currUser.getSharedPosts().add(post);
-        post.setShareCount(post.getShareCount() + 1);
-        userRepository.save(currUser);
-        postRepository.save(post);
-        // evictPostCache(postId);
+    public void incrementShares(Long postId, long userId) {
+        long publisherId = findPublisherId(postId);
+        engagementCounterService.recordShare(postId, publisherId, userId);
+        engagementMembershipService.markShared(userId, postId);
+        nowTrendingService.recordEngagement(postId, 0, 1, 0);
     }
 
     @Override
-    @Transactional
-    @CacheEvict(value = "posts", key = "#postId")
-    public void reportPost(Long postId, String username) {
-        Post post = postRepository.findById(postId)
+    public void reportPost(Long postId, long userId) {
+        findPublisherId(postId);
+        if (!engagementCounterService.recordReport(postId, userId)) {
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "You cannot report the same post twice");
+        }
+        engagementMembershipService.markReported(userId, postId);
+    }
+
+    @Override
+    public long getPublisherId(long postId) {
+        return findPublisherId(postId);
+    }
+
+    private long findPublisherId(long postId) {
+        return postRepository.findPublisherIdByPostId(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
-        UserEntity currUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new BlogAPIException(HttpStatus.BAD_REQUEST,
-                        "the user was not found with username: " + username, ErrorCode.USER_NOT_FOUND));
-        currUser.getReportedPosts().add(post); // add postId to the getReportedPosts set
-        post.setNumOfReports(post.getNumOfReports() + 1); // increment # of reports for post
-        userRepository.save(currUser);
-        postRepository.save(post);
-        // evictPostCache(postId);
     }
 
     @Override
-    public List<PostDto> getPostByPublisherId(long publisherId) {
-        List<Post> posts = postRepository.findAllPostsByPublisher(publisherId);
-        List<PostDto> postDTOs = posts.stream()
-                .map(post -> mapToDTO(post))
+    public List<PostSummaryDto> getPostByPublisherId(long publisherId) {
+        List<PostSummary> posts = postRepository.findSummariesByPublisher(publisherId);
+        List<PostSummaryDto> postDTOs = posts.stream()
+                .map(PostSummaryDto::from)
                 .collect(Collectors.toList());
         return postDTOs;
     }
 
+    /**
+     * @return the fresh profanity status of every listed post whose moderation stamp is out of date
+     */
+    private Map<Long, String> remoderateStalePosts(List<PostSummary> posts) throws ExecutionException, InterruptedException {
+        String moderationStamp = profanityService.currentModerationStamp();
+        List<Long> stalePostIds = posts.stream()
+                .filter(post -> !moderationStamp.equals(post.getModerationStamp()))
+                .filter(post -> !ProfanityStatus.PENDING.equals(post.getProfanityStatus())) // left to the moderation workers
+                .map(PostSummary::getId)
+                .collect(Collectors.toList());
+        if (stalePostIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Post> stalePosts = postRepository.findAllById(stalePostIds);
+        profanityService.filterPostProfanity(stalePosts);
+        Map<Long, String> remoderatedStatuses = new HashMap<>();
+        for (Post post : stalePosts) {
+            remoderatedStatuses.put(post.getId(), post.getProfanityStatus());
+        }
+        return remoderatedStatuses;
+    }
+
     private PostDto mapToDTO(Post post){
         PostDto postDto = mapper.map(post, PostDto.class);
         return postDto;
@@ -2,83 +2,110 @@ package com.springboot.blog.service.impl;
 
 import com.springboot.blog.annotations.GetExecutionTime;
 import com.springboot.blog.entity.Post;
-import com.springboot.blog.payload.PostDto;
+import com.springboot.blog.repository.PostRepository;
+import com.springboot.blog.service.NowTrendingService;
 import com.springboot.blog.service.ProfanityService;
 import com.springboot.blog.utils.ProfanityManagerUtil;
+import com.springboot.blog.utils.ProfanityMatcher;
 import com.springboot.blog.utils.AppEnums.ProfanityStatus;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProfanityServiceImpl implements ProfanityService {
 
-    private final ModelMapper modelMapper;
+    private final PostRepository postRepository;
     private final ReputationServiceImpl reputationService;
+    private final NowTrendingService nowTrendingService;
 
+    // bump whenever the threshold formula below changes so stored verdicts get re-evaluated
+    private static final String THRESHOLD_VERSION = "t1";
+    private static final double MAX_PUBLISHER_RANK_BONUS = 0.02;
+    private static final double BASE_NEGATIVE_THRESHOLD = 0.02;
+    private static final double BASE_NEUTRAL_THRESHOLD = 0.03;
+    private static final double BASE_POSITIVE_THRESHOLD = 0.04;
+
+    @Override
+    public String currentModerationStamp() {
+        return ProfanityManagerUtil.wordBankVersion() + ":" + THRESHOLD_VERSION;
+    }
+
+    /**
+     * Trusts the verdict stored at write time and only re-runs the moderation
+     * for posts whose stamp is missing or was produced by an older word bank/thresholds.
+     * Re-moderated posts are persisted so the next read takes the fast path.
+     * The stored content was masked when the post was written, so a re-scan no longer sees the
+     * profanity that blocked it: re-moderation can block a post but never unblocks one.
+     */
     @Override
     @GetExecutionTime
-    public List<PostDto> filterPostProfanity(List<PostDto> postDtoList) throws ExecutionException, InterruptedException {
-        List<PostDto> filteredList = new ArrayList<>();
-
-        for (PostDto postDto : postDtoList) {
-            Post postEntity = modelMapper.map(postDto, Post.class);
-            Post profanityFreePost = profanityMarker(postEntity);
-            if (profanityFreePost.getProfanityStatus().equals(ProfanityStatus.ACTIVE)) {
-                filteredList.add(modelMapper.map(profanityFreePost, PostDto.class));
+    public List<Post> filterPostProfanity(List<Post> posts) throws ExecutionException, InterruptedException {
+        List<Post> filteredList = new ArrayList<>();
+        List<Post> remoderatedPosts = new ArrayList<>();
+        String moderationStamp = currentModerationStamp();
+
+        for (Post post : posts) {
+            // pending posts have no sentiment yet, their first verdict comes from the moderation workers
+            if (!moderationStamp.equals(post.getModerationStamp())
+                    && !ProfanityStatus.PENDING.equals(post.getProfanityStatus())) {
+                remoderatedPosts.add(post);
+            }
+        }
+        // reputation of every publisher on the page is fetched in one go
+        Map<Long, Double> publisherRanks = remoderatedPosts.isEmpty() ? Collections.emptyMap()
+                : reputationService.overallReputationScores(remoderatedPosts.stream()
+                        .map(post -> post.getPublisherID().getId()).collect(Collectors.toSet()));
+
+        for (Post post : remoderatedPosts) {
+            long publisherID = post.getPublisherID().getId();
+            String previousStatus = post.getProfanityStatus();
+            profanityMarker(post, publisherRanks.getOrDefault(publisherID, 0.0));
+            if (ProfanityStatus.BLOCKED.equals(previousStatus)) {
+                post.setProfanityStatus(ProfanityStatus.BLOCKED);
+            }
+            reputationService.recordModerationVerdict(publisherID, previousStatus, post.getProfanityStatus());
+            if (!Objects.equals(previousStatus, post.getProfanityStatus())) {
+                nowTrendingService.recordPostPublished(post);
             }
         }
+        for (Post post : posts) {
+            if (ProfanityStatus.ACTIVE.equals(post.getProfanityStatus())) {
+                filteredList.add(post);
+            }
+        }
+        if (!remoderatedPosts.isEmpty()) {
+            postRepository.saveAll(remoderatedPosts);
+        }
         return filteredList;
     }
 
     @Override
     @GetExecutionTime
     public Post profanityMarker(Post post) throws ExecutionException, InterruptedException {
+        double publisherRank = reputationService.reputationScore(post.getPublisherID().getId());
+        return profanityMarker(post, publisherRank);
+    }
 
-        double publisherRank = reputationService
-                .overallReputationScore(post.getPublisherID().getId()).get();
+    private Post profanityMarker(Post post, double publisherRank) {
         // regardless of how good someone's reputation is we will cap bonus allowance at 2%
-        double adjustForPublisherRank = Math.min(publisherRank * 0.005, 0.02);
+        double adjustForPublisherRank = Math.min(publisherRank * 0.005, MAX_PUBLISHER_RANK_BONUS);
 
         // dynamic profanity threshold of (2% - 6%) per blog post
-        double NEGATIVE_PROFANITY_THRESHOLD = 0.02 + adjustForPublisherRank;
-        double NEUTRAL_PROFANITY_THRESHOLD  = 0.03 + adjustForPublisherRank;
-        double POSITIVE_PROFANITY_THRESHOLD = 0.04 + adjustForPublisherRank;
-
-        String[] words = post.getContent().split("\\s+");
-        int totalWords = words.length;
-        double profanityWordCount = 0;
-
-        StringBuilder filteredText = new StringBuilder();
-
-        for (String word : words) {
-            // Separate word and punctuation
-            String[] parts = word.split("([.,!])", 2);
-            // System.out.println("parts: " + parts.toString());
-            String wordPart = parts[0]; // The word part
-            String punctuationPart = parts.length > 1 ? parts[1] : ""; // The punctuation part
-            // System.out.println("punctuationPart: " + punctuationPart);
-            if (ProfanityManagerUtil.PROFANITY_WORDS.containsKey(wordPart.toLowerCase())) {
-                profanityWordCount += 1;
-                // Append punctuation, hide profane word, and spacing
-                filteredText.append(punctuationPart).append("****").append(" ");
-                // System.out.println("filteredText: " + filteredText);
-            } else {
-                filteredText.append(word).append(" "); // Append word and spacing
-            }
-        }
+        double NEGATIVE_PROFANITY_THRESHOLD = BASE_NEGATIVE_THRESHOLD + adjustForPublisherRank;
+        double NEUTRAL_PROFANITY_THRESHOLD  = BASE_NEUTRAL_THRESHOLD + adjustForPublisherRank;
+        double POSITIVE_PROFANITY_THRESHOLD = BASE_POSITIVE_THRESHOLD + adjustForPublisherRank;
 
-        if (filteredText.toString().endsWith(" ")) {
-            // Remove the trailing space at the end of the string
-            filteredText.deleteCharAt(filteredText.length() - 1);
-        }
+        // single linear pass over the content: finds words & phrases and builds the masked text
+        ProfanityMatcher.Result scan = ProfanityManagerUtil.profanityMatcher().mask(post.getContent());
+        int totalWords = Math.max(scan.getWordCount(), 1);
+        double profanityWordCount = scan.getProfanityCount();
 
-        // System.out.println(filteredText);
-        post.setContent(filteredText.toString());
+        post.setContent(scan.getMaskedText());
         double profanityRatio = (profanityWordCount / totalWords);
 
         System.out.println("profanityRatio: " + profanityRatio +
@@ -104,6 +131,7 @@ public class ProfanityServiceImpl implements ProfanityService {
                 post.setProfanityStatus(ProfanityStatus.ACTIVE);
             }
         }
+        post.setModerationStamp(currentModerationStamp());
         return post; // return marked post with "Active" or "Blocked" status
     }
 }
\ No newline at end of file
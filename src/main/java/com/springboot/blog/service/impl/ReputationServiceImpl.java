@@ -2,11 +2,20 @@ package com.springboot.blog.service.impl;
 
 import com.springboot.blog.annotations.GetExecutionTime;
 import com.springboot.blog.entity.Post;
+import com.springboot.blog.entity.PublisherReputation;
+import com.springboot.blog.payload.PostMetrics;
+import com.springboot.blog.payload.PublisherFollowerCount;
+import com.springboot.blog.payload.PublisherPostStats;
 import com.springboot.blog.repository.PostRepository;
+import com.springboot.blog.repository.PublisherReputationRepository;
 import com.springboot.blog.repository.UserRepository;
 import com.springboot.blog.service.ReputationService;
+import com.springboot.blog.utils.AppEnums.ProfanityStatus;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -20,6 +29,11 @@ import java.util.concurrent.CompletableFuture;
  * Reputation plays a crucial role for the way we:
  *   i) recommend blogs to the user via user feed
  *   ii) and calculate blog profanity threshold
+ *
+ * The inputs of the score are kept as running sums in the publisher_reputation table.
+ * Posts, likes, shares, comments, follows and moderation verdicts adjust them in O(1),
+ * so reading a score is a single row lookup. A scheduled reconciliation rebuilds every
+ * row from the posts table to catch drift (e.g. publish intervals of deleted posts).
  */
 
 @Service
@@ -28,6 +42,19 @@ public class ReputationServiceImpl implements ReputationService {
 
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final PublisherReputationRepository publisherReputationRepository;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReputationServiceImpl.class);
+
+    // upper bounds of each reputation component
+    private static final double MAX_ENGAGEMENT_SCORE = 25;
+    private static final double MAX_FREQUENCY_SCORE = 2.5;
+    private static final double MAX_SENTIMENT_SCORE = 2.5;
+    private static final double MAX_PROFANITY_SCORE = 7.5;
+    private static final double MAX_FOLLOWER_SCORE = 2.5;
+    // publishers rebuilt per batch by the reconciliation job
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
     /**
      * Reputation of a user is not swayed quickly and is built over time.
      *
@@ -36,106 +63,202 @@ public class ReputationServiceImpl implements ReputationService {
      */
     @Override
     @GetExecutionTime
-    @Async("asyncTaskExecutor") // avg execution time 8 ms
+    public double reputationScore(long publisherID) {
+        PublisherReputation reputation = publisherReputationRepository.findById(publisherID)
+                .filter(row -> row.getReconciledAt() != null)
+                .orElseGet(() -> rebuildReputation(publisherID));
+        return scoreOf(reputation);
+    }
+
+    /**
+     * Non-blocking variant of {@link #reputationScore(long)}, the row read (or the rebuild
+     * on a miss) runs on the bounded reputationTaskExecutor instead of the caller's thread.
+     */
+    @Override
+    @Async("reputationTaskExecutor")
     public CompletableFuture<Double> overallReputationScore(long publisherID) {
-        List<Post> posts = postRepository.findAllPostsByPublisher(publisherID);
-        // If the user has no posts, assign the lowest score possible
-        if (posts == null || posts.isEmpty()) {
-            return CompletableFuture.completedFuture(0.0); // assigned min score
+        return CompletableFuture.completedFuture(reputationScore(publisherID));
+    }
+
+    /**
+     * Bulk variant used by pages & feeds: one read of the reputation rows, publishers
+     * that were never reconciled are rebuilt together with two grouped aggregate queries.
+     *
+     * @param publisherIDs The unique identifiers of the users.
+     * @return Map<publisherID, reputation rank>, publishers without posts get the min score.
+     */
+    @Override
+    @GetExecutionTime
+    public Map<Long, Double> overallReputationScores(Collection<Long> publisherIDs) {
+        Map<Long, Double> reputationScores = new HashMap<>();
+        if (publisherIDs == null || publisherIDs.isEmpty()) {
+            return reputationScores;
         }
-        CompletableFuture<Double> postEngagementScoreFuture = CompletableFuture.supplyAsync(() ->
-                Math.min(averagePostEngagement(posts), 25));
-        CompletableFuture<Double> postFrequencyScoreFuture = CompletableFuture.supplyAsync(() ->
-                Math.min(averagePublishFrequency(posts), 2.5));
-        CompletableFuture<Double> postSentimentScoreFuture = CompletableFuture.supplyAsync(() ->
-                Math.min(averagePostSentiment(posts), 2.5));
-        CompletableFuture<Double> postProfanityScoreFuture = CompletableFuture.supplyAsync(() ->
-                Math.min(averagePostProfanityScore(posts), 7.5));
-        CompletableFuture<Double> followerScoreFuture = CompletableFuture.supplyAsync(() -> {
-            long followersCount = userRepository.findFollowersByUserId(publisherID).size();
-            return Math.min((double) followersCount / 100, 2.5);
-        });
-        // Combine the individual scores when all CompletableFuture are completed
-        return CompletableFuture.allOf(postEngagementScoreFuture, postFrequencyScoreFuture,
-                postProfanityScoreFuture, postSentimentScoreFuture, followerScoreFuture
-        ).thenApply(ignored -> postEngagementScoreFuture.join() + postFrequencyScoreFuture.join() +
-                postSentimentScoreFuture.join() + followerScoreFuture.join() - postProfanityScoreFuture.join()
-        );
-    }
-
-    private static double averagePublishFrequency(List<Post> posts) {
-        double normalizationFactor = 120.0;
-        double totalFrequencyScore = 0.0;
-        for (int i = 1; i < posts.size(); i++) {
-            Date previousPostTime = posts.get(i - 1).getPublishDate();
-            Date currentPostTime = posts.get(i).getPublishDate();
-            double hoursBetweenPosts = calculateHoursBetweenPosts(previousPostTime, currentPostTime);
-            double frequencyScore = calculateFrequencyScore(hoursBetweenPosts);
-            totalFrequencyScore += frequencyScore;
+        Set<Long> missingPublisherIDs = new HashSet<>(publisherIDs);
+        for (PublisherReputation reputation : publisherReputationRepository.findAllById(missingPublisherIDs)) {
+            if (reputation.getReconciledAt() != null) {
+                reputationScores.put(reputation.getPublisherId(), scoreOf(reputation));
+            }
+        }
+        missingPublisherIDs.removeAll(reputationScores.keySet());
+        if (!missingPublisherIDs.isEmpty()) {
+            for (PublisherReputation reputation : rebuildReputations(missingPublisherIDs)) {
+                reputationScores.put(reputation.getPublisherId(), scoreOf(reputation));
+            }
         }
-        // Calculate the average publish frequency score
-        return (totalFrequencyScore / (posts.size() - 1)) / normalizationFactor;
+        return reputationScores;
     }
 
-    private static double calculateHoursBetweenPosts(Date previousPostTime, Date currentPostTime) {
-        // Calculate the time difference in hours using Date objects
-        long millisecondsBetweenPosts = currentPostTime.getTime() - previousPostTime.getTime();
-        return millisecondsBetweenPosts / (1000.0 * 60.0 * 60.0); // Convert milliseconds to hours
+    @Override
+    public void recordPostPublished(Post post) {
+        publisherReputationRepository.addPost(post.getPublisherID().getId(),
+                mapSentimentToScore(post.getPostSentiment()), isBlocked(post.getProfanityStatus()),
+                post.getPublishDate());
     }
 
-    private static double calculateFrequencyScore(double hoursBetweenPosts) {
-        double epsilon = 0.0001; // add epsilon to avoid division by zero
-        return 1.0 / (hoursBetweenPosts + epsilon);
+    @Override
+    public void recordPostRemoved(Post post) {
+        publisherReputationRepository.removePost(post.getPublisherID().getId(),
+                valueOf(post.getLikesCount()), valueOf(post.getShareCount()), valueOf(post.getCommentCount()),
+                mapSentimentToScore(post.getPostSentiment()), isBlocked(post.getProfanityStatus()));
     }
 
-    private static double averagePostEngagement(List<Post> posts) {
-        double normalizationFactor = 18.0;
-        List<Double> likesScores = new ArrayList<>();
-        List<Double> commentsScores = new ArrayList<>();
-        List<Double> sharesScores = new ArrayList<>();
-
-        for (Post post : posts) {
-            likesScores.add((double) post.getLikesCount());
-            commentsScores.add((double) post.getCommentCount());
-            sharesScores.add((double) post.getShareCount());
+    @Override
+    public void recordEngagement(long publisherID, long likesDelta, long sharesDelta, long commentsDelta) {
+        publisherReputationRepository.addEngagement(publisherID, likesDelta, sharesDelta, commentsDelta);
+    }
+
+    @Override
+    public void recordModerationVerdict(long publisherID, String previousStatus, String newStatus) {
+        int delta = isBlocked(newStatus) - isBlocked(previousStatus);
+        if (delta != 0) {
+            publisherReputationRepository.addBlocked(publisherID, delta);
         }
-        // Calculate weighted median scores for each metric
-        double weightedMedianLikes = calculateWeightedMedian(likesScores, 0.45);
-        double weightedMedianShares = calculateWeightedMedian(sharesScores, 0.45);
-        double weightedMedianComments = calculateWeightedMedian(commentsScores, 0.10);
-        // Calculate overall reputation based on weighted median scores
-        return ((weightedMedianLikes + weightedMedianShares + weightedMedianComments) / 3) * normalizationFactor;
-    }
-
-    private static double calculateWeightedMedian(List<Double> list, double weight) {
-        Collections.sort(list);
-        int size = list.size();
-        double weightedSum = 0.0;
-        double totalWeight = 0.0;
-
-        for (int i = 0; i < size; i++) {
-            // Adjusting weight for even-sized lists
-            double medianWeight = (size % 2 == 0) ? 0.5 : 1.0;
-            double currentWeight = medianWeight * weight;
-            weightedSum += list.get(i) * currentWeight;
-            totalWeight += currentWeight;
+    }
+
+    @Override
+    public void recordFollowerChange(long publisherID, long delta) {
+        publisherReputationRepository.addFollowers(publisherID, delta);
+    }
+
+    /**
+     * Rebuilds every reputation row from scratch to correct drift of the running sums.
+     * The execution of this method is automatically handled by @EnableScheduling at root of the application level.
+     */
+    @Override
+    @GetExecutionTime
+    @Scheduled(cron = "${reputation.reconcile.cron:0 30 3 * * *}")
+    public void reconcileReputations() {
+        List<Long> userIDs = userRepository.findAllUserIds();
+        for (int from = 0; from < userIDs.size(); from += RECONCILE_BATCH_SIZE) {
+            List<Long> batch = userIDs.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, userIDs.size()));
+            rebuildReputations(batch);
         }
-        return weightedSum / totalWeight;
+        LOGGER.info("reconciled reputation of {} publishers", userIDs.size());
     }
 
-    private static double averagePostSentiment(List<Post> posts) {
-        int totalSentimentScore = 0;
-        double normalizationFactor = 8.0;
+    private List<PublisherReputation> rebuildReputations(Collection<Long> publisherIDs) {
+        Date reconciledAt = new Date();
+        Map<Long, PublisherReputation> reputations = new HashMap<>();
+        for (Long publisherID : publisherIDs) {
+            reputations.put(publisherID, emptyReputation(publisherID, reconciledAt));
+        }
+        for (PublisherFollowerCount followerCount : userRepository.countFollowersByUserIds(publisherIDs)) {
+            reputations.get(followerCount.getPublisherId()).setFollowerCount(followerCount.getFollowerCount());
+        }
+        for (PublisherPostStats stats : postRepository.findPostStatsByPublishers(publisherIDs)) {
+            PublisherReputation reputation = reputations.get(stats.getPublisherId());
+            reputation.setPostCount(valueOf(stats.getPostCount()));
+            reputation.setLikesSum(valueOf(stats.getLikesSum()));
+            reputation.setSharesSum(valueOf(stats.getSharesSum()));
+            reputation.setCommentsSum(valueOf(stats.getCommentsSum()));
+            reputation.setSentimentSum(valueOf(stats.getSentimentSum()));
+            reputation.setBlockedCount(valueOf(stats.getBlockedCount()));
+            reputation.setFrequencySum(stats.getFrequencySum() == null ? 0.0 : stats.getFrequencySum());
+            reputation.setLastPublishDate(stats.getLastPublishDate());
+        }
+        return publisherReputationRepository.saveAll(reputations.values());
+    }
 
-        for (Post post : posts) {
-            int sentimentScore = mapSentimentToScore(post.getPostSentiment());
-            totalSentimentScore += sentimentScore;
+    private PublisherReputation rebuildReputation(long publisherID) {
+        // only the numeric & status columns are fetched, never the post content
+        List<PostMetrics> postMetrics = postRepository.findPostMetricsByPublisher(publisherID);
+        ReputationAccumulator accumulator = new ReputationAccumulator();
+        for (PostMetrics metrics : postMetrics) {
+            accumulator.add(metrics);
         }
-        double averageSentimentScore = (double) totalSentimentScore / posts.size();
+        PublisherReputation reputation = accumulator.toReputation(publisherID);
+        reputation.setFollowerCount(userRepository.countFollowersByUserIds(List.of(publisherID)).stream()
+                .mapToLong(PublisherFollowerCount::getFollowerCount).sum());
+        return publisherReputationRepository.save(reputation);
+    }
+
+    private static PublisherReputation emptyReputation(long publisherID, Date reconciledAt) {
+        PublisherReputation reputation = new PublisherReputation();
+        reputation.setPublisherId(publisherID);
+        reputation.setReconciledAt(reconciledAt);
+        return reputation;
+    }
+
+    private static double scoreOf(PublisherReputation reputation) {
+        long postCount = reputation.getPostCount();
+        // If the user has no posts, assign the lowest score possible
+        if (postCount <= 0) {
+            return 0.0; // assigned min score
+        }
+        double engagementScore = Math.min(averagePostEngagement(reputation, postCount), MAX_ENGAGEMENT_SCORE);
+        double frequencyScore = Math.min(averagePublishFrequency(reputation, postCount), MAX_FREQUENCY_SCORE);
+        double sentimentScore = Math.min(averagePostSentiment(reputation, postCount), MAX_SENTIMENT_SCORE);
+        double profanityScore = Math.min(averagePostProfanityScore(reputation, postCount), MAX_PROFANITY_SCORE);
+        double followerScore = Math.min((double) reputation.getFollowerCount() / 100, MAX_FOLLOWER_SCORE);
+        return engagementScore + frequencyScore + sentimentScore + followerScore - profanityScore;
+    }
+
+    private static double averagePostEngagement(PublisherReputation reputation, long postCount) {
+        double normalizationFactor = 18.0;
+        // the weighted median applies one constant weight per metric, which reduces it to the mean
+        double averageLikes = (double) reputation.getLikesSum() / postCount;
+        double averageShares = (double) reputation.getSharesSum() / postCount;
+        double averageComments = (double) reputation.getCommentsSum() / postCount;
+        return ((averageLikes + averageShares + averageComments) / 3) * normalizationFactor;
+    }
+
+    private static double averagePublishFrequency(PublisherReputation reputation, long postCount) {
+        double normalizationFactor = 120.0;
+        // a single post has no publish interval to score
+        if (postCount < 2) {
+            return 0.0;
+        }
+        return (reputation.getFrequencySum() / (postCount - 1)) / normalizationFactor;
+    }
+
+    private static double averagePostSentiment(PublisherReputation reputation, long postCount) {
+        double normalizationFactor = 8.0;
+        double averageSentimentScore = (double) reputation.getSentimentSum() / postCount;
         return averageSentimentScore * normalizationFactor;
     }
 
+    private static double averagePostProfanityScore(PublisherReputation reputation, long postCount) {
+        double normalizationFactor = 6.0;
+        double averageProfanityScore = (double) reputation.getBlockedCount() / postCount;
+        return averageProfanityScore * normalizationFactor;
+    }
+
+    private static double calculateHoursBetweenPosts(long previousPostTime, long currentPostTime) {
+        // Calculate the time difference in hours using epoch milliseconds
+        long millisecondsBetweenPosts = currentPostTime - previousPostTime;
+        return millisecondsBetweenPosts / (1000.0 * 60.0 * 60.0); // Convert milliseconds to hours
+    }
+
+    private static double calculateFrequencyScore(double hoursBetweenPosts) {
+        double epsilon = 0.0001; // add epsilon to avoid division by zero
+        return 1.0 / (hoursBetweenPosts + epsilon);
+    }
+
     private static int mapSentimentToScore(String sentiment) {
+        if (sentiment == null) {
+            return 0;
+        }
         // Assuming a simple mapping where "negative" is -1, "neutral" is 0, and "positive" is 1
         switch (sentiment.toLowerCase()) {
             case "negative":
@@ -149,20 +272,56 @@ public class ReputationServiceImpl implements ReputationService {
         }
     }
 
-    private static double averagePostProfanityScore(List<Post> posts) {
-        double totalProfanityScore = 0.0;
-        double normalizationFactor = 6.0;
+    private static int isBlocked(String profanityStatus) {
+        // "Blocked" means high profanity (score 1), and anything else means low profanity (score 0)
+        return ProfanityStatus.BLOCKED.equals(profanityStatus) ? 1 : 0;
+    }
 
-        for (Post post : posts) {
-            double profanityScore = analyzeProfanity(post.getProfanityStatus());
-            totalProfanityScore += profanityScore;
-        }
-        double averageProfanityScore = totalProfanityScore / posts.size();
-        return averageProfanityScore * normalizationFactor;
+    private static long valueOf(Long counter) {
+        return counter == null ? 0L : counter;
     }
 
-    private static double analyzeProfanity(String profanityStatus) {
-        // "Blocked" means high profanity (score 1), and anything else means low profanity (score 0)
-        return "Blocked".equals(profanityStatus) ? 1.0 : 0.0;
+    /**
+     * Single pass over a publisher's post metrics (ordered by publish date) that
+     * folds every row into primitive running sums, nothing is buffered per post.
+     */
+    private static final class ReputationAccumulator {
+        private long postCount;
+        private long likesSum;
+        private long sharesSum;
+        private long commentsSum;
+        private long sentimentSum;
+        private long blockedCount;
+        private double frequencySum;
+        private long previousPublishTime = -1L;
+
+        private void add(PostMetrics metrics) {
+            postCount++;
+            likesSum += valueOf(metrics.getLikesCount());
+            sharesSum += valueOf(metrics.getShareCount());
+            commentsSum += valueOf(metrics.getCommentCount());
+            sentimentSum += mapSentimentToScore(metrics.getPostSentiment());
+            blockedCount += isBlocked(metrics.getProfanityStatus());
+            long publishTime = metrics.getPublishDate() == null ? 0L : metrics.getPublishDate().getTime();
+            if (previousPublishTime >= 0) {
+                frequencySum += calculateFrequencyScore(calculateHoursBetweenPosts(previousPublishTime, publishTime));
+            }
+            previousPublishTime = publishTime;
+        }
+
+        private PublisherReputation toReputation(long publisherID) {
+            PublisherReputation reputation = emptyReputation(publisherID, new Date());
+            reputation.setPostCount(postCount);
+            reputation.setLikesSum(likesSum);
+            reputation.setSharesSum(sharesSum);
+            reputation.setCommentsSum(commentsSum);
+            reputation.setSentimentSum(sentimentSum);
+            reputation.setBlockedCount(blockedCount);
+            reputation.setFrequencySum(frequencySum);
+            if (previousPublishTime >= 0) {
+                reputation.setLastPublishDate(new Date(previousPublishTime));
+            }
+            return reputation;
+        }
     }
-}
\ No newline at end of file
+}
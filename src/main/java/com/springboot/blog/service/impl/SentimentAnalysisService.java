@@ -1,42 +1,364 @@
 package com.springboot.blog.service.impl;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.blog.cache.TwoLevelCacheManager;
 import com.springboot.blog.exception.BlogAPIException;
+import com.springboot.blog.payload.SentimentResult;
 import com.springboot.blog.service.ProfanityService;
+import com.springboot.blog.utils.AppEnums.CacheEnum;
+import com.springboot.blog.utils.LexiconSentimentScorer;
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.ling.CoreLabel;
 import edu.stanford.nlp.pipeline.Annotation;
 import edu.stanford.nlp.pipeline.StanfordCoreNLP;
 import edu.stanford.nlp.sentiment.SentimentCoreAnnotations;
+import edu.stanford.nlp.util.CoreMap;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.util.Properties;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
+/**
+ * Sentiment classification backed by a StanfordCoreNLP pipeline. Loading the parser & sentiment models
+ * takes tens of seconds, so the pipeline is built on a background thread once the application is up
+ * instead of during context start. Until it is ready every text is classified as "Neutral" (the same
+ * answer the circuit breaker falls back to), the model state is reported by the sentimentModel health
+ * indicator and, unless disabled, holds the readiness probe.
+ *
+ * Results are cached by the SHA-256 of the normalised text together with the model version: a bounded
+ * local LRU first, then (unless disabled) the shared "sentiment" redis cache, so a text already classified
+ * on any node is not parsed again. The redis tier is used directly, without the near cache & invalidation
+ * messages of the other caches: the LRU is the only local copy, and a key's value never changes so there
+ * is nothing to invalidate. Lookups are counted per tier in {@code sentiment.cache.requests}.
+ *
+ * Classification itself is tiered: the text is tokenized, the first sentence (the one whose sentiment
+ * the parse based model reports) is scored by the {@link LexiconSentimentScorer} and only sentences it
+ * is not confident about are parsed. Answers are counted per tier in {@code sentiment.tier.requests} and a
+ * sample of the lexicon answers is also parsed to report how often both tiers agree in
+ * {@code sentiment.tier.agreement}. The lexicon tier is off unless {@code sentiment.lexicon.enabled} is set,
+ * its agreement with the parser has only been measured on generated text so far.
+ */
 @Service
-@RequiredArgsConstructor
 public class SentimentAnalysisService {
 
-    private final StanfordCoreNLP pipeline;
+    public enum ModelState { WARMING, READY, FAILED }
+
+    private static final String DEGRADED_SENTIMENT = "Neutral";
+    private static final String TOKENIZER_ANNOTATORS = "tokenize, ssplit";
+    private static final String PARSER_ANNOTATORS = "parse, sentiment";
+    // bump together with the CoreNLP dependency or the annotators, cached results of another model are ignored
+    private static final String MODEL_VERSION = "corenlp-4.2.2:" + (TOKENIZER_ANNOTATORS + "," + PARSER_ANNOTATORS).replace(" ", "");
+    private static final String LEXICON_RESOURCE = "sentiment_lexicon.json";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final TwoLevelCacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final Executor sentimentBatchExecutor;
+
+    @Value("${sentiment.cache.local-size:10000}")
+    private int localCacheSize;
+    @Value("${sentiment.cache.redis-enabled:true}")
+    private boolean redisCacheEnabled;
+    @Value("${sentiment.lexicon.enabled:false}")
+    private boolean lexiconEnabled;
+    @Value("${sentiment.lexicon.min-confidence:0.5}")
+    private double lexiconMinConfidence;
+    @Value("${sentiment.lexicon.agreement-sample-rate:0.02}")
+    private double agreementSampleRate;
+
+    private Map<String, String> localSentiments;
+    private Counter localHits;
+    private Counter redisHits;
+    private Counter misses;
+    private LexiconSentimentScorer lexiconScorer; // null when the lexicon tier is disabled
+    private String cacheVersion;
+    private Counter lexiconAnswers;
+    private Counter parserAnswers;
+    private Counter exactAgreements;
+    private Counter polarityAgreements;
+    private Counter disagreements;
     private final Logger logger = LoggerFactory.getLogger(SentimentAnalysisService.class);
 
-    public SentimentAnalysisService() {
-        Properties props = new Properties();
-        props.setProperty("annotators", "tokenize, ssplit, parse, sentiment");
-        this.pipeline = new StanfordCoreNLP(props);
+    private volatile SentimentModels models;
+    private volatile ModelState modelState = ModelState.WARMING;
+    private final long createdAt = System.currentTimeMillis();
+    private volatile long warmupMillis;
+
+    public SentimentAnalysisService(TwoLevelCacheManager cacheManager, MeterRegistry meterRegistry,
+                                    @Qualifier("sentimentBatchExecutor") Executor sentimentBatchExecutor) {
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.sentimentBatchExecutor = sentimentBatchExecutor;
+    }
+
+    @PostConstruct
+    public void init() {
+        localSentiments = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > localCacheSize;
+            }
+        });
+        localHits = meterRegistry.counter("sentiment.cache.requests", "result", "local_hit");
+        redisHits = meterRegistry.counter("sentiment.cache.requests", "result", "redis_hit");
+        misses = meterRegistry.counter("sentiment.cache.requests", "result", "miss");
+        Gauge.builder("sentiment.cache.hit.ratio", this, SentimentAnalysisService::cacheHitRatio)
+                .description("share of sentiment lookups answered without parsing")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("sentiment.cache.local.size", Tags.empty(), localSentiments);
+
+        lexiconScorer = lexiconEnabled ? loadLexiconScorer() : null;
+        // answers of the lexicon tier differ from the parser's, so they are cached under their own version
+        cacheVersion = lexiconScorer == null ? MODEL_VERSION : MODEL_VERSION + "+lexicon-" + lexiconScorer.version();
+        lexiconAnswers = meterRegistry.counter("sentiment.tier.requests", "tier", "lexicon");
+        parserAnswers = meterRegistry.counter("sentiment.tier.requests", "tier", "parser");
+        exactAgreements = meterRegistry.counter("sentiment.tier.agreement", "result", "exact");
+        polarityAgreements = meterRegistry.counter("sentiment.tier.agreement", "result", "polarity");
+        disagreements = meterRegistry.counter("sentiment.tier.agreement", "result", "disagree");
+        Gauge.builder("sentiment.tier.lexicon.share", this, SentimentAnalysisService::lexiconShare)
+                .description("share of classifications answered by the lexicon tier without parsing")
+                .register(meterRegistry);
+    }
+
+    private LexiconSentimentScorer loadLexiconScorer() {
+        try (InputStream lexicon = new ClassPathResource(LEXICON_RESOURCE).getInputStream()) {
+            Map<String, Integer> valences = new ObjectMapper().readValue(lexicon, new TypeReference<>() {});
+            logger.info("Loaded -> {} ({} words)", LEXICON_RESOURCE, valences.size());
+            return new LexiconSentimentScorer(valences, lexiconMinConfidence);
+        } catch (IOException e) {
+            logger.error("sentiment lexicon could not be loaded, every text will be parsed", e);
+            return null;
+        }
+    }
+
+    @Async("asyncTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpPipeline() {
+        long start = System.currentTimeMillis();
+        try {
+            Properties tokenizerProps = new Properties();
+            tokenizerProps.setProperty("annotators", TOKENIZER_ANNOTATORS);
+            Properties parserProps = new Properties();
+            parserProps.setProperty("annotators", PARSER_ANNOTATORS);
+            // runs on documents the tokenizer already split, so tokenize & ssplit are not repeated
+            parserProps.setProperty("enforceRequirements", "false");
+            SentimentModels warmModels = new SentimentModels(
+                    new StanfordCoreNLP(tokenizerProps), new StanfordCoreNLP(parserProps));
+            // the first annotation loads what the constructors left lazy
+            Annotation warmup = new Annotation("The models are warm.");
+            warmModels.tokenizer().annotate(warmup);
+            warmModels.parser().annotate(warmup);
+            models = warmModels;
+            warmupMillis = System.currentTimeMillis() - start;
+            modelState = ModelState.READY;
+            logger.info("sentiment pipeline ready after {} ms", warmupMillis);
+        } catch (RuntimeException | LinkageError e) { // LinkageError: models missing from the classpath
+            warmupMillis = System.currentTimeMillis() - start;
+            modelState = ModelState.FAILED;
+            logger.error("sentiment pipeline could not be loaded, sentiment stays degraded", e);
+        }
     }
+
+    public ModelState getModelState() {
+        return modelState;
+    }
+
+    public boolean isModelReady() {
+        return modelState == ModelState.READY;
+    }
+
+    /** Time spent loading the models, or waiting for them so far while warming. */
+    public long getWarmupMillis() {
+        return modelState == ModelState.WARMING ? System.currentTimeMillis() - createdAt : warmupMillis;
+    }
+
     @CircuitBreaker(name = "defaultCircuit", fallbackMethod = "fallbackSentiment")
     public String analyzeSentiment(String text) {
+        SentimentModels models = this.models;
+        if (models == null) {
+            return DEGRADED_SENTIMENT; // not an error, the circuit must not open while the models load
+        }
+        return cachedOrClassified(models, text);
+    }
+
+    /**
+     * Same as {@link #analyzeSentiment(String)} without the degraded "Neutral": fails while the models are not
+     * ready or when the text cannot be classified, for callers that store the verdict for good.
+     */
+    public String analyzeSentimentOrFail(String text) {
+        SentimentModels models = this.models;
+        if (models == null) {
+            throw new BlogAPIException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "The sentiment model is " + modelState.name().toLowerCase() + ", the text cannot be analyzed yet");
+        }
+        return cachedOrClassified(models, text);
+    }
+
+    private String cachedOrClassified(SentimentModels models, String text) {
+        String cacheKey = sentimentCacheKey(text);
+        String sentiment = cachedSentiment(cacheKey);
+        if (sentiment == null) {
+            sentiment = classify(models, text);
+            storeSentiment(cacheKey, sentiment);
+        }
+        return sentiment;
+    }
+
+    /**
+     * Classifies many texts at once for backfills, bulk moderation & the batch endpoint. Cached texts are
+     * answered right away, the others are annotated in parallel on the bounded sentimentBatchExecutor.
+     * Exactly one result is passed to {@code onResult} per text, in completion order & tagged with the
+     * index of its text; a text that fails, even with an {@link Error}, carries an error instead of failing
+     * the whole batch.
+     *
+     * @return one future per text that had to be classified, completing once its result has been passed on.
+     * Cancelling one that has not started yet skips its text (and its result), one already being parsed
+     * finishes its single sentence.
+     */
+    public List<CompletableFuture<Void>> analyzeSentimentBatch(List<String> texts, Consumer<SentimentResult> onResult) {
+        SentimentModels models = this.models;
+        if (models == null) { // a batch of placeholders would be mistaken for real verdicts
+            throw new BlogAPIException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "The sentiment model is " + modelState.name().toLowerCase() + ", batches cannot be analyzed yet");
+        }
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (int index = 0; index < texts.size(); index++) {
+            int textIndex = index;
+            String text = texts.get(index);
+            String cacheKey = sentimentCacheKey(text);
+            String sentiment = cachedSentiment(cacheKey);
+            if (sentiment != null) {
+                onResult.accept(new SentimentResult(textIndex, sentiment, null));
+                continue;
+            }
+            pending.add(CompletableFuture.runAsync(() -> {
+                SentimentResult result;
+                try {
+                    String classified = classify(models, text);
+                    storeSentiment(cacheKey, classified);
+                    result = new SentimentResult(textIndex, classified, null);
+                } catch (Throwable e) { // the caller waits for one result per text, whatever went wrong
+                    logger.error("sentiment of batch text {} could not be classified", textIndex, e);
+                    result = new SentimentResult(textIndex, null,
+                            e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                }
+                onResult.accept(result);
+            }, sentimentBatchExecutor));
+        }
+        return pending;
+    }
+
+    /** Blocking form of {@link #analyzeSentimentBatch(List, Consumer)}, results are in the order of the texts. */
+    public List<SentimentResult> analyzeSentiments(List<String> texts) {
+        SentimentResult[] results = new SentimentResult[texts.size()];
+        List<CompletableFuture<Void>> pending = analyzeSentimentBatch(texts, result -> results[result.getIndex()] = result);
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        return Arrays.asList(results);
+    }
+
+    private String cachedSentiment(String cacheKey) {
+        String sentiment = localSentiments.get(cacheKey);
+        if (sentiment != null) {
+            localHits.increment();
+            return sentiment;
+        }
+        Cache redisSentiments = redisCacheEnabled ? cacheManager.getRemoteCache(CacheEnum.SENTIMENT) : null;
+        sentiment = redisSentiments != null ? redisSentiments.get(cacheKey, String.class) : null;
+        if (sentiment != null) {
+            redisHits.increment();
+            localSentiments.put(cacheKey, sentiment);
+        } else {
+            misses.increment();
+        }
+        return sentiment;
+    }
+
+    private void storeSentiment(String cacheKey, String sentiment) {
+        localSentiments.put(cacheKey, sentiment);
+        Cache redisSentiments = redisCacheEnabled ? cacheManager.getRemoteCache(CacheEnum.SENTIMENT) : null;
+        if (redisSentiments != null) {
+            redisSentiments.put(cacheKey, sentiment);
+        }
+    }
+
+    private double lexiconShare() {
+        double answers = lexiconAnswers.count() + parserAnswers.count();
+        return answers == 0 ? 0 : lexiconAnswers.count() / answers;
+    }
+
+    private double cacheHitRatio() {
+        double hits = localHits.count() + redisHits.count();
+        double lookups = hits + misses.count();
+        return lookups == 0 ? 0 : hits / lookups;
+    }
+
+    /**
+     * Texts differing only in surrounding or repeated whitespace share a key, anything else
+     * (including case, which the parser is sensitive to) is a different text.
+     */
+    private String sentimentCacheKey(String text) {
+        String normalisedText = WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFC).strip()).replaceAll(" ");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(normalisedText.getBytes(StandardCharsets.UTF_8));
+            return cacheVersion + ":" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String classify(SentimentModels models, String text) {
         try {
             Annotation annotation = new Annotation(text);
-            pipeline.annotate(annotation);
-            for (edu.stanford.nlp.util.CoreMap sentence : annotation.get(
-                    edu.stanford.nlp.ling.CoreAnnotations.SentencesAnnotation.class)) {
-                String sentiment = sentence.get(SentimentCoreAnnotations.SentimentClass.class);
-                return mapSentiment(sentiment);
+            models.tokenizer().annotate(annotation);
+            List<CoreMap> sentences = annotation.get(CoreAnnotations.SentencesAnnotation.class);
+            if (sentences.isEmpty()) {
+                return "undetermined"; // return "undetermined" when the model is uncertain
+            }
+            CoreMap firstSentence = sentences.get(0);
+            if (lexiconScorer != null) {
+                List<String> words = new ArrayList<>();
+                for (CoreLabel token : firstSentence.get(CoreAnnotations.TokensAnnotation.class)) {
+                    words.add(token.word());
+                }
+                String sentiment = lexiconScorer.score(words).getSentiment();
+                if (sentiment != null) {
+                    lexiconAnswers.increment();
+                    if (ThreadLocalRandom.current().nextDouble() < agreementSampleRate) {
+                        recordAgreement(sentiment, parse(models, annotation, firstSentence));
+                    }
+                    return sentiment;
+                }
             }
-            return "undetermined"; // return "undetermined" when the model is uncertain
+            parserAnswers.increment();
+            return parse(models, annotation, firstSentence);
 
         } catch (Exception e) {
             logger.error("Error during sentiment analysis for text: {}", text, e);
@@ -44,6 +366,27 @@ public class SentimentAnalysisService {
         }
     }
 
+    /**
+     * Runs the parse based model on the first sentence only, the sentiment of the others was never used.
+     */
+    private String parse(SentimentModels models, Annotation annotation, CoreMap firstSentence) {
+        Annotation firstSentenceOnly = new Annotation(annotation.get(CoreAnnotations.TextAnnotation.class));
+        firstSentenceOnly.set(CoreAnnotations.TokensAnnotation.class, firstSentence.get(CoreAnnotations.TokensAnnotation.class));
+        firstSentenceOnly.set(CoreAnnotations.SentencesAnnotation.class, List.of(firstSentence));
+        models.parser().annotate(firstSentenceOnly);
+        return mapSentiment(firstSentence.get(SentimentCoreAnnotations.SentimentClass.class));
+    }
+
+    private void recordAgreement(String lexiconSentiment, String parserSentiment) {
+        if (lexiconSentiment.equals(parserSentiment)) {
+            exactAgreements.increment();
+        } else if (parserSentiment.endsWith(lexiconSentiment)) {
+            polarityAgreements.increment();
+        } else {
+            disagreements.increment();
+        }
+    }
+
     private String mapSentiment(String originalSentiment) {
         if (originalSentiment == null) {
             return "cannot classify a blank response";
@@ -66,6 +409,9 @@ public class SentimentAnalysisService {
 
     public String fallbackSentiment(Throwable throwable) {
         // return when the circuit opens
-        return "Neutral";
+        return DEGRADED_SENTIMENT;
+    }
+
+    private record SentimentModels(StanfordCoreNLP tokenizer, StanfordCoreNLP parser) {
     }
-}
\ No newline at end of file
+}
@@ -6,9 +6,10 @@ import com.springboot.blog.exception.BlogAPIException;
 import com.springboot.blog.exception.ResourceNotFoundException;
 import com.springboot.blog.payload.*;
 import com.springboot.blog.repository.UserRepository;
-import com.springboot.blog.service.NowTrendingService;
+import com.springboot.blog.service.FeedService;
 import com.springboot.blog.service.ReputationService;
 import com.springboot.blog.service.UserService;
+import com.springboot.blog.utils.AppEnums.CacheEnum;
 import com.springboot.blog.utils.AppEnums.ErrorCode;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -16,14 +17,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,77 +36,61 @@ public class UserServiceImpl implements UserService {
     private final ModelMapper modelMapper;
     private final UserRepository userRepository;
     private final ReputationService reputationService;
-    private final NowTrendingService nowTrendingService;
+    private final FeedService feedService;
+    private final CacheManager cacheManager;
 
-    @Value("${distinguished_publisher_threshold}")
-    private double DISTINGUISHED_PUBLISHER_THRESHOLD;
+    @Value("${feed.size:50}")
+    private int feedSize;
+    @Value("${feed.cache.soft-ttl-ms:600000}")
+    private long feedSoftTtlMillis;
+    // feeds with a background refresh queued or running on this node
+    private final Set<Long> refreshingFeeds = ConcurrentHashMap.newKeySet();
 
     private static final Logger LOGGER =
             LoggerFactory.getLogger(UserService.class);
     /**
-     * For optimization purposes userRecommendedPosts are cached.
-     * The cache collection is set to refresh every 3 hours.
+     * Feeds are served stale-while-revalidate from the userRecommendedPosts cache: within the soft ttl
+     * the cached feed is returned as is, past it the cached feed is still returned right away and one
+     * background refresh is scheduled on the bounded feedRefreshExecutor (if it is saturated the refresh
+     * is simply dropped, a later read asks again). Only a feed past its hard expiry (the redis ttl)
+     * or never computed is built on the caller's thread.
      *
      * @param userId The unique identifier of the user.
-     * @return A collection Set<PostDto> fetched from
-     * trending publishers, favourite authors, and preferred genres.
+     * @return A collection Set<PostSummaryDto> read from the user's timeline, which is filled
+     * as favourite publishers post, distinguished publishers post and favourite genres trend.
      */
     @Override
     @GetExecutionTime
-    @Cacheable(value = "userRecommendedPosts", key = "#userId")
-    public Set<PostDto> getRecommendedPosts(long userId) throws ExecutionException, InterruptedException {
-        Set<PostDto> userFeedCollection = new HashSet<>();
-        // will store Map<publisherID, publisherRank>
-        Map<Long, Double> publisherReputationMap = new HashMap<>();
-        // fetching "Favourite Publishers" for the user
-        Set<UserDTO> userFavPublishers = getUserFollowing(userId);
-
-        // extracting IDs from userDTO to avoid nested loops
-        Set<Long> userFavPublisherIDs = userFavPublishers
-                .stream().map(user -> user.getId()).collect(Collectors.toSet());
-        System.out.println("userFavPublisherIDs: " + userFavPublisherIDs);
-
-        // fetching "Favourite Genres" for the user with the provided ID
-        UserEntity foundUser = userRepository.findById(userId)
-                .orElseThrow(() -> new BlogAPIException(HttpStatus.BAD_REQUEST,
-                        "Was not able to find user with ID: " + userId, ErrorCode.USER_NOT_FOUND));
+    public Set<PostSummaryDto> getRecommendedPosts(long userId) {
+        Cache feedCache = cacheManager.getCache(CacheEnum.USER_RECOMMENDED_POSTS);
+        Object cachedValue = feedCache.get(userId, () -> feedService.computeCachedFeed(userId, feedSize));
+        if (!(cachedValue instanceof CachedFeed cachedFeed)) { // written by an older version, replace it
+            CachedFeed freshFeed = feedService.computeCachedFeed(userId, feedSize);
+            feedCache.put(userId, freshFeed);
+            return freshFeed.getPosts();
+        }
+        if (System.currentTimeMillis() - cachedFeed.getRefreshedAt() >= feedSoftTtlMillis) {
+            scheduleFeedRefresh(userId);
+        }
+        return cachedFeed.getPosts();
+    }
 
-        Set<String> favGenres = foundUser.getFavBlogGenres();
-        // fetching top 25 weekly posts using nowTrendingService
-        List<PostDto> trendyPosts = nowTrendingService.getWeeklyTrending(25);
-        for (PostDto post : trendyPosts) {
-            // check if trending posts contain user's fav publishers
-            if (userFavPublisherIDs.contains(post.getPublisherID())) {
-                userFeedCollection.add(post);
-                System.out.println("Added post to feed from favourite publisher: Post-" + post.getId());
-            }
-            // we will store Map<publisherID, publisherRank> in publisherReputationMap
-            if (publisherReputationMap.containsKey(post.getPublisherID())) {
-                if (publisherReputationMap.get(post.getPublisherID()) > DISTINGUISHED_PUBLISHER_THRESHOLD) {
-                    userFeedCollection.add(post);
-                    System.out.println("Added post to feed from distinguished publisher: Post-" + post.getId());
-                }
-            } else {
-                // if the publisher has not been added to publisherReputationMap we will add him there
-                double publisherRank = reputationService.overallReputationScore(post.getPublisherID()).get();
-                publisherReputationMap.put(post.getPublisherID(), publisherRank);
-                System.out.println("PublisherID# " + post.getPublisherID() + " | RANK: " + publisherRank);
-                // if publisher is of high rank we will be updating postsFromDistinguishedPublishers collection
-                if (publisherRank >= DISTINGUISHED_PUBLISHER_THRESHOLD) {;
-                    userFeedCollection.add(post);
-                    System.out.println("Added post to feed from distinguished publisher: Post-" + post.getId());
-                }
-            }
-            // check tags for the publishment & cross validate with user preferences and favourite genres
-            for (String tag : post.getTags()) {
-                if (favGenres.contains(tag)) {
-                    userFeedCollection.add(post);
-                    System.out.println("Added post to feed from favourite genre: Post-" + post.getId());
-                    break; // no need to continue checking other genres
-                }
-            }
+    private void scheduleFeedRefresh(long userId) {
+        if (!refreshingFeeds.add(userId)) {
+            return; // a refresh for this feed is already queued or running
+        }
+        try {
+            feedService.refreshCachedFeed(userId, feedSize)
+                    .whenComplete((result, error) -> {
+                        refreshingFeeds.remove(userId);
+                        if (error != null) {
+                            LOGGER.warn("feed refresh failed for user {}: {}", userId, error.toString());
+                        }
+                    });
+        } catch (TaskRejectedException e) {
+            refreshingFeeds.remove(userId);
+            LOGGER.debug("feed refresh for user {} dropped, refresh executor is saturated", userId);
         }
-        return userFeedCollection;
     }
 
     @Override
@@ -127,6 +114,8 @@ public class UserServiceImpl implements UserService {
         });
         // wait for the completion of the CompletableFuture
         result.join();
+        reputationService.recordFollowerChange(targetUserID, 1);
+        feedService.seedTimeline(currentUserID, targetUserID);
     }
 
     @Override
@@ -150,6 +139,8 @@ public class UserServiceImpl implements UserService {
         });
         // wait for the completion of the CompletableFuture
         result.join();
+        reputationService.recordFollowerChange(targetUserID, -1);
+        feedService.unseedTimeline(currentUserID, targetUserID);
     }
 
     @Transactional
@@ -226,6 +217,23 @@ public class UserServiceImpl implements UserService {
         return userDTO;
     }
 
+    @Override
+    public long findUserIdByUsername(String username) {
+        return userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new BlogAPIException(HttpStatus.BAD_REQUEST,
+                        "Was not able to find username: " + username, ErrorCode.USER_NOT_FOUND));
+    }
+
+    @Override
+    public boolean isFollowing(long followerId, long targetUserId) {
+        return userRepository.existsFollower(targetUserId, followerId) > 0;
+    }
+
+    @Override
+    public Set<String> getFavGenres(long userId) {
+        return userRepository.findFavGenresByUserId(userId);
+    }
+
     private UserDTO mapUserToDTO(UserEntity user) {
         UserDTO userDTO = new UserDTO();
         userDTO.setId(user.getId());
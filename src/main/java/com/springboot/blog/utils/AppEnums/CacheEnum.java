@@ -3,4 +3,6 @@ package com.springboot.blog.utils.AppEnums;
 public class CacheEnum {
     public static final String POSTS = "posts";
     public static final String COMMENT = "comment";
+    public static final String USER_RECOMMENDED_POSTS = "userRecommendedPosts";
+    public static final String SENTIMENT = "sentiment";
 }
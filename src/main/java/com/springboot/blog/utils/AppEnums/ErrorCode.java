@@ -6,6 +6,7 @@ public class ErrorCode {
     public static final int UNSUPPORTED_MEDIA_TYPE = 1299;
 
     public static final int POST_BLOCKED = 1388;
+    public static final int POST_PENDING = 1389;
     public static final int INVALID_JWT_TOKEN = 1399;
 
     public static final int CANNOT_BE_DIFF_USER = 1700;
@@ -0,0 +1,241 @@
+package com.springboot.blog.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Token level sentiment scorer, the cheap first tier in front of the CoreNLP parse based model.
+ *
+ * Every token is looked up case-insensitively in an open addressing table compiled once from the
+ * lexicon (word -> valence between -3 and 3), so scoring is a single pass without allocations.
+ * Negators ("not", "n't", "never", ...) flip the valence of the next few tokens, intensifiers and
+ * dampeners scale the next scored token and a contrast ("but", "however", ...) halves whatever came
+ * before it, as the clause after it usually carries the opinion.
+ *
+ * A text only gets a verdict when it is clearly one-sided: the confidence is the strength of the
+ * normalised score times the share of the dominant polarity, halved when a negation or a contrast was
+ * involved. Anything below the minimum confidence, including text without a single lexicon word, is
+ * left to the parser. Verdicts are plain "Positive" or "Negative": the lexicon cannot tell the parser's
+ * "Very" intensities apart reliably, and moderation only has thresholds for the plain labels.
+ *
+ * Instances are immutable after construction and safe to share between threads.
+ */
+public final class LexiconSentimentScorer {
+
+    // bump whenever the scoring rules below change so cached verdicts get re-evaluated
+    private static final String RULES_VERSION = "l2";
+    // normalisation constant of the score, higher values need more evidence for the same strength
+    private static final double NORMALISATION_ALPHA = 8;
+    private static final double NEGATED_WEIGHT = -0.75;
+    private static final double INTENSIFIED_WEIGHT = 1.5;
+    private static final double DAMPENED_WEIGHT = 0.5;
+    private static final double CONTRAST_WEIGHT = 0.5;
+    private static final int NEGATION_SCOPE = 3;
+    // negations & contrasts are what the parser handles well and the lexicon does not
+    private static final double STRUCTURE_CONFIDENCE_PENALTY = 0.5;
+
+    private static final byte ROLE_VALENCE = 1;
+    private static final byte ROLE_NEGATOR = 2;
+    private static final byte ROLE_INTENSIFIER = 3;
+    private static final byte ROLE_DAMPENER = 4;
+    private static final byte ROLE_CONTRAST = 5;
+    private static final byte ROLE_CLAUSE_END = 6;
+
+    private static final List<String> NEGATORS = List.of(
+            "not", "n't", "no", "never", "none", "nothing", "nobody", "neither", "nor", "without", "hardly");
+    private static final List<String> INTENSIFIERS = List.of(
+            "very", "really", "extremely", "so", "too", "totally", "absolutely", "incredibly", "truly",
+            "highly", "super", "completely");
+    private static final List<String> DAMPENERS = List.of("slightly", "somewhat", "barely", "kinda", "fairly");
+    private static final List<String> CONTRASTS = List.of("but", "however", "although", "though", "yet");
+    private static final List<String> CLAUSE_ENDS = List.of(".", "!", "?", ";", ":");
+
+    // open addressing table, keys are lower case
+    private final String[] keys;
+    private final byte[] roles;
+    private final byte[] valences;
+    private final int mask;
+    private final double minConfidence;
+    private final String version;
+
+    public LexiconSentimentScorer(Map<String, Integer> lexicon, double minConfidence) {
+        int capacity = Integer.highestOneBit(Math.max(lexicon.size() + 64, 16) * 4);
+        keys = new String[capacity];
+        roles = new byte[capacity];
+        valences = new byte[capacity];
+        mask = capacity - 1;
+        this.minConfidence = minConfidence;
+        for (Map.Entry<String, Integer> entry : lexicon.entrySet()) {
+            int valence = Math.max(-3, Math.min(3, entry.getValue()));
+            if (valence != 0) {
+                insert(entry.getKey(), ROLE_VALENCE, valence);
+            }
+        }
+        NEGATORS.forEach(word -> insert(word, ROLE_NEGATOR, 0));
+        INTENSIFIERS.forEach(word -> insert(word, ROLE_INTENSIFIER, 0));
+        DAMPENERS.forEach(word -> insert(word, ROLE_DAMPENER, 0));
+        CONTRASTS.forEach(word -> insert(word, ROLE_CONTRAST, 0));
+        CLAUSE_ENDS.forEach(word -> insert(word, ROLE_CLAUSE_END, 0));
+        version = computeVersion(lexicon, minConfidence);
+    }
+
+    private void insert(String word, byte role, int valence) {
+        String key = word.toLowerCase();
+        int slot = hash(key) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        roles[slot] = role;
+        valences[slot] = (byte) valence;
+    }
+
+    private int lookup(String token) {
+        int slot = hash(token) & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equalsIgnoreCase(token)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // case-insensitive, so tokens are looked up without lower casing copies
+    private static int hash(String token) {
+        int h = 0;
+        for (int i = 0; i < token.length(); i++) {
+            h = 31 * h + Character.toLowerCase(token.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static String computeVersion(Map<String, Integer> lexicon, double minConfidence) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // sorted so that reordering the json file does not invalidate cached verdicts
+            for (Map.Entry<String, Integer> entry : new TreeMap<>(lexicon).entrySet()) {
+                digest.update((entry.getKey() + "=" + entry.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return RULES_VERSION + ":" + minConfidence + ":" + HexFormat.of().formatHex(digest.digest(), 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Changes whenever the lexicon, the scoring rules or the minimum confidence change.
+     */
+    public String version() {
+        return version;
+    }
+
+    /**
+     * @param tokens the words of the text as produced by the tokenizer
+     * @return the score, its sentiment is null when the text has to be escalated to the parser
+     */
+    public Score score(List<String> tokens) {
+        double total = 0;
+        double positive = 0;
+        double negative = 0;
+        double weight = 1;
+        int negationLeft = 0;
+        int hits = 0;
+        boolean structured = false;
+
+        for (String token : tokens) {
+            int slot = lookup(token);
+            if (slot < 0) {
+                negationLeft = Math.max(negationLeft - 1, 0);
+                continue;
+            }
+            switch (roles[slot]) {
+                case ROLE_NEGATOR -> negationLeft = NEGATION_SCOPE;
+                case ROLE_INTENSIFIER -> weight = INTENSIFIED_WEIGHT;
+                case ROLE_DAMPENER -> weight = DAMPENED_WEIGHT;
+                case ROLE_CONTRAST -> {
+                    structured |= hits > 0;
+                    total *= CONTRAST_WEIGHT;
+                    positive *= CONTRAST_WEIGHT;
+                    negative *= CONTRAST_WEIGHT;
+                    negationLeft = 0;
+                    weight = 1;
+                }
+                case ROLE_CLAUSE_END -> {
+                    negationLeft = 0;
+                    weight = 1;
+                }
+                default -> {
+                    double valence = valences[slot] * weight;
+                    if (negationLeft > 0) {
+                        valence *= NEGATED_WEIGHT;
+                        negationLeft--;
+                        structured = true;
+                    }
+                    total += valence;
+                    if (valence > 0) {
+                        positive += valence;
+                    } else {
+                        negative -= valence;
+                    }
+                    hits++;
+                    weight = 1;
+                }
+            }
+        }
+
+        double strength = total / Math.sqrt(total * total + NORMALISATION_ALPHA);
+        double dominantShare = hits == 0 ? 0 : Math.max(positive, negative) / (positive + negative);
+        double confidence = Math.abs(strength) * dominantShare * (structured ? STRUCTURE_CONFIDENCE_PENALTY : 1);
+        String sentiment = null;
+        if (hits > 0 && confidence >= minConfidence) {
+            sentiment = strength > 0 ? "Positive" : "Negative";
+        }
+        return new Score(sentiment, strength, confidence, hits);
+    }
+
+    public static final class Score {
+        private final String sentiment;
+        private final double strength;
+        private final double confidence;
+        private final int hits;
+
+        private Score(String sentiment, double strength, double confidence, int hits) {
+            this.sentiment = sentiment;
+            this.strength = strength;
+            this.confidence = confidence;
+            this.hits = hits;
+        }
+
+        /**
+         * @return the verdict in the labels of the parse based model, null when not confident
+         */
+        public String getSentiment() {
+            return sentiment;
+        }
+
+        /**
+         * @return the normalised score, from -1 (negative) to 1 (positive)
+         */
+        public double getStrength() {
+            return strength;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+
+        public int getHits() {
+            return hits;
+        }
+
+        public boolean isConfident() {
+            return sentiment != null;
+        }
+    }
+}
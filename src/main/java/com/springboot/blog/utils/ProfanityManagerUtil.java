@@ -3,8 +3,13 @@ package com.springboot.blog.utils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.TreeSet;
 
 public class ProfanityManagerUtil {
 
@@ -18,6 +23,19 @@ public class ProfanityManagerUtil {
             e.printStackTrace();
         }
     }
+
+    // initialised after the word bank is loaded above: compiled once, shared by every moderation call
+    private static final ProfanityMatcher PROFANITY_MATCHER = new ProfanityMatcher(PROFANITY_WORDS.keySet());
+    // changes whenever an entry is added to or removed from the word bank
+    private static final String WORD_BANK_VERSION = computeWordBankVersion();
+
+    public static ProfanityMatcher profanityMatcher() {
+        return PROFANITY_MATCHER;
+    }
+
+    public static String wordBankVersion() {
+        return WORD_BANK_VERSION;
+    }
     private static void loadProfanityWordsFromJson(String filePath) throws IOException {
         ObjectMapper objectMapper = new ObjectMapper();
         String[] words = objectMapper.readValue(new File(filePath), String[].class);
@@ -26,7 +44,20 @@ public class ProfanityManagerUtil {
             PROFANITY_WORDS.put(word.toLowerCase(), 0);
         }
     }
+    private static String computeWordBankVersion() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // sorted so that reordering the json file does not invalidate stored verdicts
+            for (String word : new TreeSet<>(PROFANITY_WORDS.keySet())) {
+                digest.update(word.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
     public static boolean isProfanity(String word) {
-        return PROFANITY_WORDS.containsKey(word.toLowerCase());
+        return PROFANITY_MATCHER.matchesExactly(word);
     }
-}
\ No newline at end of file
+}
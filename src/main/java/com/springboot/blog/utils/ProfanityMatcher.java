@@ -0,0 +1,261 @@
+package com.springboot.blog.utils;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+
+/**
+ * Aho-Corasick automaton compiled once from the profanity word bank.
+ *
+ * A single left-to-right pass over the content finds every bank entry (multi word
+ * phrases included), counts the words of the post and writes the masked text into
+ * one buffer. Matching is case-insensitive, any run of whitespace matches the
+ * single space used inside phrases, and a match only counts when it is not glued
+ * to a neighbouring letter or digit (so "class" never trips on "ass").
+ *
+ * Instances are immutable after construction and safe to share between threads.
+ */
+public final class ProfanityMatcher {
+
+    public static final String MASK = "****";
+
+    private static final int ROOT = 0;
+
+    // per node children, kept sorted by character for binary search
+    private char[][] childKeys;
+    private int[][] childNodes;
+    private int[] childCount;
+    private int[] failure;
+    // length of the bank entry ending at this node (0 when the node is not terminal)
+    private int[] patternLength;
+    // closest terminal node reachable through failure links, -1 when there is none
+    private int[] outputLink;
+    private int nodeCount;
+
+    public ProfanityMatcher(Collection<String> patterns) {
+        int capacity = 1;
+        for (String pattern : patterns) {
+            capacity += pattern.length();
+        }
+        childKeys = new char[capacity][];
+        childNodes = new int[capacity][];
+        childCount = new int[capacity];
+        patternLength = new int[capacity];
+        nodeCount = 1;
+        for (String pattern : patterns) {
+            insert(pattern);
+        }
+        buildFailureLinks();
+    }
+
+    private void insert(String pattern) {
+        int node = ROOT;
+        int length = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = normalize(pattern.charAt(i));
+            // collapse runs of whitespace inside phrases to a single space
+            if (c == ' ' && (length == 0 || i + 1 == pattern.length() || normalize(pattern.charAt(i + 1)) == ' ')) {
+                continue;
+            }
+            int next = child(node, c);
+            if (next < 0) {
+                next = nodeCount++;
+                addChild(node, c, next);
+            }
+            node = next;
+            length++;
+        }
+        if (node != ROOT) {
+            patternLength[node] = length;
+        }
+    }
+
+    private void addChild(int node, char c, int target) {
+        if (childKeys[node] == null) {
+            childKeys[node] = new char[2];
+            childNodes[node] = new int[2];
+        } else if (childCount[node] == childKeys[node].length) {
+            childKeys[node] = Arrays.copyOf(childKeys[node], childCount[node] * 2);
+            childNodes[node] = Arrays.copyOf(childNodes[node], childCount[node] * 2);
+        }
+        int position = -(Arrays.binarySearch(childKeys[node], 0, childCount[node], c) + 1);
+        int tail = childCount[node] - position;
+        System.arraycopy(childKeys[node], position, childKeys[node], position + 1, tail);
+        System.arraycopy(childNodes[node], position, childNodes[node], position + 1, tail);
+        childKeys[node][position] = c;
+        childNodes[node][position] = target;
+        childCount[node]++;
+    }
+
+    private int child(int node, char c) {
+        if (childCount[node] == 0) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(childKeys[node], 0, childCount[node], c);
+        return index >= 0 ? childNodes[node][index] : -1;
+    }
+
+    private void buildFailureLinks() {
+        failure = new int[nodeCount];
+        outputLink = new int[nodeCount];
+        outputLink[ROOT] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int i = 0; i < childCount[ROOT]; i++) {
+            int next = childNodes[ROOT][i];
+            failure[next] = ROOT;
+            outputLink[next] = -1;
+            queue.add(next);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < childCount[node]; i++) {
+                char c = childKeys[node][i];
+                int next = childNodes[node][i];
+                int fallback = failure[node];
+                while (fallback != ROOT && child(fallback, c) < 0) {
+                    fallback = failure[fallback];
+                }
+                int target = child(fallback, c);
+                failure[next] = target >= 0 ? target : ROOT;
+                outputLink[next] = patternLength[failure[next]] > 0
+                        ? failure[next] : outputLink[failure[next]];
+                queue.add(next);
+            }
+        }
+    }
+
+    private int step(int node, char c) {
+        while (true) {
+            int next = child(node, c);
+            if (next >= 0) {
+                return next;
+            }
+            if (node == ROOT) {
+                return ROOT;
+            }
+            node = failure[node];
+        }
+    }
+
+    private static char normalize(char c) {
+        return Character.isWhitespace(c) ? ' ' : Character.toLowerCase(c);
+    }
+
+    private static boolean isBoundary(CharSequence text, int index) {
+        return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+
+    /**
+     * Scans the content once, masking every profane word or phrase with {@link #MASK}.
+     * Overlapping matches are merged into a single masked span and counted once.
+     *
+     * @param text the content of the post
+     * @return masked text together with the number of masked spans and words seen
+     */
+    public Result mask(CharSequence text) {
+        int length = text.length();
+        // masked spans as [start, end) pairs, merged while scanning
+        int[] spans = new int[16];
+        int spanCount = 0;
+        int wordCount = 0;
+        boolean inWord = false;
+        int node = ROOT;
+        // text index of every character fed to the automaton, runs of whitespace are fed once
+        int[] fedIndex = new int[length];
+        int fedCount = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (!inWord && i > 0) {
+                    continue;
+                }
+                inWord = false;
+            } else if (!inWord) {
+                inWord = true;
+                wordCount++;
+            }
+            fedIndex[fedCount++] = i;
+            node = step(node, normalize(c));
+
+            int end = i + 1;
+            if (!isBoundary(text, end)) {
+                continue;
+            }
+            // longest bank entry ending here that also starts on a word boundary
+            int terminal = patternLength[node] > 0 ? node : outputLink[node];
+            while (terminal > 0) {
+                int start = fedIndex[fedCount - patternLength[terminal]];
+                if (isBoundary(text, start - 1)) {
+                    // drop earlier spans swallowed by this one, then merge with an overlapping neighbour
+                    while (spanCount > 0 && spans[2 * (spanCount - 1)] >= start) {
+                        spanCount--;
+                    }
+                    if (spanCount > 0 && spans[2 * spanCount - 1] > start) {
+                        spans[2 * spanCount - 1] = end;
+                    } else {
+                        if (2 * spanCount == spans.length) {
+                            spans = Arrays.copyOf(spans, spans.length * 2);
+                        }
+                        spans[2 * spanCount] = start;
+                        spans[2 * spanCount + 1] = end;
+                        spanCount++;
+                    }
+                    break;
+                }
+                terminal = outputLink[terminal];
+            }
+        }
+
+        if (spanCount == 0) {
+            return new Result(text.toString(), 0, wordCount);
+        }
+        StringBuilder masked = new StringBuilder(length);
+        int cursor = 0;
+        for (int s = 0; s < spanCount; s++) {
+            masked.append(text, cursor, spans[2 * s]).append(MASK);
+            cursor = spans[2 * s + 1];
+        }
+        masked.append(text, cursor, length);
+        return new Result(masked.toString(), spanCount, wordCount);
+    }
+
+    /**
+     * @return true when the whole word or phrase is an entry of the word bank
+     */
+    public boolean matchesExactly(CharSequence text) {
+        int node = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            node = child(node, normalize(text.charAt(i)));
+            if (node < 0) {
+                return false;
+            }
+        }
+        return node != ROOT && patternLength[node] == text.length();
+    }
+
+    public static final class Result {
+        private final String maskedText;
+        private final int profanityCount;
+        private final int wordCount;
+
+        private Result(String maskedText, int profanityCount, int wordCount) {
+            this.maskedText = maskedText;
+            this.profanityCount = profanityCount;
+            this.wordCount = wordCount;
+        }
+
+        public String getMaskedText() {
+            return maskedText;
+        }
+
+        public int getProfanityCount() {
+            return profanityCount;
+        }
+
+        public int getWordCount() {
+            return wordCount;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.springboot.blog.utils;
+
+import com.springboot.blog.payload.PostSummaryDto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory ranking of the active posts of the last month by the engagement they
+ * received during the last day, week & month.
+ *
+ * Every post records its likes, shares & comments in a ring of 24 hourly buckets.
+ * An hourly bucket that ages out of the ring is compacted into a ring of 31 daily
+ * buckets (UTC days), so the daily window is exact to the hour while the weekly and
+ * monthly windows slide a day at a time. Each post also keeps running totals per
+ * window: an event adds to them, an aging bucket subtracts from them, and a window's
+ * TreeSet is ordered by those totals (likes, then shares, then comments, descending).
+ * A post belongs to a window when it was published inside it or was engaged with inside it.
+ *
+ * Engagement is an O(log n) re-insert, a top-n read walks the first n entries of one set,
+ * and {@link #expire(long)} rolls every post forward once per hour.
+ */
+public class TrendingEngine {
+
+    public enum Window {
+        DAILY(1), WEEKLY(7), MONTHLY(30);
+
+        private final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+    }
+
+    private static final long MILLIS_PER_HOUR = 60L * 60L * 1000L;
+    private static final int HOURS_PER_DAY = 24;
+    private static final int HOURLY_SLOTS = HOURS_PER_DAY;
+    private static final int DAILY_SLOTS = 31;
+    private static final int METRICS = 3;
+    private static final int LIKES = 0;
+    private static final int SHARES = 1;
+    private static final int COMMENTS = 2;
+    private static final Window[] WINDOWS = Window.values();
+
+    private final ZoneId zoneId;
+    private final UnaryOperator<PostSummaryDto> copier;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final EnumMap<Window, NavigableSet<Entry>> rankings = new EnumMap<>(Window.class);
+    private long currentHour = Long.MIN_VALUE;
+    private long monthlyCutoff = Long.MIN_VALUE;
+
+    /**
+     * @param zoneId zone used to compute the publish date cutoff of a window, like CURRENT_DATE in MySQL
+     * @param copier makes the defensive copy of a snapshot handed out by {@link #top}
+     */
+    public TrendingEngine(ZoneId zoneId, UnaryOperator<PostSummaryDto> copier) {
+        this.zoneId = zoneId;
+        this.copier = copier;
+        for (Window window : WINDOWS) {
+            rankings.put(window, new TreeSet<>(ranking(window)));
+        }
+    }
+
+    private static Comparator<Entry> ranking(Window window) {
+        int offset = window.ordinal() * METRICS;
+        return Comparator
+                .comparingLong((Entry entry) -> entry.windowTotals[offset + LIKES]).reversed()
+                .thenComparing(Comparator.comparingLong((Entry entry) -> entry.windowTotals[offset + SHARES]).reversed())
+                .thenComparing(Comparator.comparingLong((Entry entry) -> entry.windowTotals[offset + COMMENTS]).reversed())
+                .thenComparing(Comparator.comparingLong((Entry entry) -> entry.publishTime).reversed())
+                .thenComparingLong(entry -> entry.postId);
+    }
+
+    /**
+     * Publish date cutoff of the window: midnight of the current day minus the window length.
+     */
+    public long cutoff(Window window, long now) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(now), zoneId)
+                .minusDays(window.days).atStartOfDay(zoneId).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Adds a post, or refreshes the snapshot of a tracked one. Lifetime counters that grew
+     * since the engine last saw the post (e.g. engagement recorded by another node) are
+     * booked as engagement of the current hour. A new post books its counters at publish time.
+     */
+    public void upsert(PostSummaryDto snapshot, long now) {
+        if (snapshot.getId() == null || snapshot.getPublishDate() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            advance(now);
+            if (snapshot.getPublishDate().getTime() < monthlyCutoff) {
+                removeInternal(snapshot.getId());
+                return; // too old for any window
+            }
+            Entry entry = entries.get(snapshot.getId());
+            if (entry == null) {
+                entry = new Entry(snapshot.getId(), snapshot.getPublishDate().getTime());
+                entry.snapshot = snapshot;
+                entries.put(entry.postId, entry);
+                // counters of a post seen for the first time are booked at its publish hour
+                entry.lastHour = Math.min(entry.publishTime / MILLIS_PER_HOUR, currentHour);
+                record(entry, snapshot.getLikesCount(), snapshot.getShareCount(), snapshot.getCommentCount());
+                roll(entry, currentHour);
+            } else {
+                unrank(entry);
+                entry.snapshot = snapshot;
+                roll(entry, currentHour);
+                record(entry, snapshot.getLikesCount() - entry.likes, snapshot.getShareCount() - entry.shares,
+                        snapshot.getCommentCount() - entry.comments);
+            }
+            rank(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long postId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Books like/share/comment deltas in the current hour of a tracked post, untracked posts are ignored.
+     */
+    public void addEngagement(long postId, long likes, long shares, long comments, long now) {
+        lock.writeLock().lock();
+        try {
+            advance(now);
+            Entry entry = entries.get(postId);
+            if (entry == null) {
+                return;
+            }
+            unrank(entry);
+            roll(entry, currentHour);
+            record(entry, likes, shares, comments);
+            rank(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return copies of the n best ranked posts of the window with their lifetime counters
+     */
+    public List<PostSummaryDto> top(Window window, int n, long now) {
+        lock.readLock().lock();
+        try {
+            List<PostSummaryDto> topPosts = new ArrayList<>(Math.min(n, entries.size()));
+            for (Entry entry : rankings.get(window)) {
+                if (topPosts.size() >= n) {
+                    break;
+                }
+                PostSummaryDto post = copier.apply(entry.snapshot);
+                post.setLikesCount(entry.likes);
+                post.setShareCount(entry.shares);
+                post.setCommentCount(entry.comments);
+                topPosts.add(post);
+            }
+            return topPosts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rolls every post up to the current hour, dropping posts older than the monthly window.
+     * Cheap to call often, the work only happens once per hour.
+     */
+    public void expire(long now) {
+        lock.writeLock().lock();
+        try {
+            advance(now);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Merges a fresh read of the database: posts missing from it are dropped,
+     * the others are upserted. Used to warm up and to converge between nodes.
+     */
+    public void reload(Collection<PostSummaryDto> snapshots, long now) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> loadedIds = new HashSet<>();
+            for (PostSummaryDto snapshot : snapshots) {
+                loadedIds.add(snapshot.getId());
+            }
+            for (Long postId : new ArrayList<>(entries.keySet())) {
+                if (!loadedIds.contains(postId)) {
+                    removeInternal(postId);
+                }
+            }
+            for (PostSummaryDto snapshot : snapshots) {
+                upsert(snapshot, now);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- internals, all called with the write lock held ---
+
+    private void advance(long now) {
+        long hour = now / MILLIS_PER_HOUR;
+        if (hour <= currentHour) {
+            return;
+        }
+        currentHour = hour;
+        monthlyCutoff = cutoff(Window.MONTHLY, now);
+        for (NavigableSet<Entry> ranking : rankings.values()) {
+            ranking.clear();
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.publishTime < monthlyCutoff) {
+                iterator.remove();
+                continue;
+            }
+            roll(entry, currentHour);
+            rank(entry);
+        }
+    }
+
+    private void record(Entry entry, long likes, long shares, long comments) {
+        entry.likes += likes;
+        entry.shares += shares;
+        entry.comments = Math.max(entry.comments + comments, 0);
+        int slot = (int) (entry.lastHour % HOURLY_SLOTS) * METRICS;
+        entry.hourlyBuckets[slot + LIKES] += (int) likes;
+        entry.hourlyBuckets[slot + SHARES] += (int) shares;
+        entry.hourlyBuckets[slot + COMMENTS] += (int) comments;
+        for (Window window : WINDOWS) {
+            int offset = window.ordinal() * METRICS;
+            entry.windowTotals[offset + LIKES] += likes;
+            entry.windowTotals[offset + SHARES] += shares;
+            entry.windowTotals[offset + COMMENTS] += comments;
+        }
+    }
+
+    /**
+     * Moves the post's buckets forward to the given hour: hours older than a day leave
+     * the daily window and are compacted into their day, days leave the weekly window
+     * after 7 days and the monthly window after 30.
+     */
+    private static void roll(Entry entry, long hour) {
+        if (hour <= entry.lastHour) {
+            return;
+        }
+        if (hour - entry.lastHour > (long) HOURS_PER_DAY * DAILY_SLOTS) {
+            // idle for longer than the monthly window, nothing recorded is still in range
+            Arrays.fill(entry.hourlyBuckets, 0);
+            Arrays.fill(entry.dailyBuckets, 0);
+            Arrays.fill(entry.windowTotals, 0);
+            entry.lastHour = hour;
+            return;
+        }
+        for (long h = entry.lastHour + 1; h <= hour; h++) {
+            if (h % HOURS_PER_DAY == 0) {
+                rollDay(entry, h / HOURS_PER_DAY);
+            }
+            rollHour(entry, h);
+        }
+        entry.lastHour = hour;
+    }
+
+    private static void rollHour(Entry entry, long hour) {
+        // the slot about to be reused holds the hour that is now 24 hours old
+        int slot = (int) (hour % HOURLY_SLOTS) * METRICS;
+        int day = (int) (((hour - HOURS_PER_DAY) / HOURS_PER_DAY) % DAILY_SLOTS) * METRICS;
+        int dailyOffset = Window.DAILY.ordinal() * METRICS;
+        for (int metric = 0; metric < METRICS; metric++) {
+            int value = entry.hourlyBuckets[slot + metric];
+            entry.windowTotals[dailyOffset + metric] -= value;
+            entry.dailyBuckets[day + metric] += value;
+            entry.hourlyBuckets[slot + metric] = 0;
+        }
+    }
+
+    private static void rollDay(Entry entry, long day) {
+        int weekOld = (int) ((day - Window.WEEKLY.days) % DAILY_SLOTS) * METRICS;
+        int monthOld = (int) ((day - Window.MONTHLY.days) % DAILY_SLOTS) * METRICS;
+        int reused = (int) (day % DAILY_SLOTS) * METRICS;
+        int weeklyOffset = Window.WEEKLY.ordinal() * METRICS;
+        int monthlyOffset = Window.MONTHLY.ordinal() * METRICS;
+        for (int metric = 0; metric < METRICS; metric++) {
+            entry.windowTotals[weeklyOffset + metric] -= entry.dailyBuckets[weekOld + metric];
+            entry.windowTotals[monthlyOffset + metric] -= entry.dailyBuckets[monthOld + metric];
+            entry.dailyBuckets[reused + metric] = 0;
+        }
+    }
+
+    private boolean belongsTo(Entry entry, Window window) {
+        int offset = window.ordinal() * METRICS;
+        boolean engagedInWindow = entry.windowTotals[offset + LIKES] > 0
+                || entry.windowTotals[offset + SHARES] > 0 || entry.windowTotals[offset + COMMENTS] > 0;
+        return engagedInWindow || entry.publishTime >= cutoff(window, currentHour * MILLIS_PER_HOUR);
+    }
+
+    private void rank(Entry entry) {
+        for (Window window : WINDOWS) {
+            if (belongsTo(entry, window)) {
+                rankings.get(window).add(entry);
+            }
+        }
+    }
+
+    private void unrank(Entry entry) {
+        for (NavigableSet<Entry> ranking : rankings.values()) {
+            ranking.remove(entry);
+        }
+    }
+
+    private void removeInternal(long postId) {
+        Entry entry = entries.remove(postId);
+        if (entry != null) {
+            unrank(entry);
+        }
+    }
+
+    private static final class Entry {
+        private final long postId;
+        private final long publishTime;
+        private PostSummaryDto snapshot;
+        // lifetime counters, reported back on the PostSummaryDto
+        private long likes;
+        private long shares;
+        private long comments;
+        // hour the buckets were last rolled to
+        private long lastHour;
+        private final int[] hourlyBuckets = new int[HOURLY_SLOTS * METRICS];
+        private final int[] dailyBuckets = new int[DAILY_SLOTS * METRICS];
+        private final long[] windowTotals = new long[WINDOWS.length * METRICS];
+
+        private Entry(long postId, long publishTime) {
+            this.postId = postId;
+            this.publishTime = publishTime;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.springboot.blog.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.springboot.blog.payload.PostDto;
+import com.springboot.blog.payload.PostSummaryDto;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Compares the cache value codec with the serializers it replaced (jdk serialization & indented json)
+ * on the two hot cache values: a post with large content and a feed of post summaries.
+ * Not part of the test suite, run its main method after {@code mvn test-compile}.
+ * Serializers whose output does not read back as the original value are flagged in the last column.
+ */
+public class CacheValueCodecBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+
+    public static void main(String[] args) {
+        ObjectMapper indentedMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Map<String, RedisSerializer<Object>> serializers = new LinkedHashMap<>();
+        serializers.put("jdk", new JdkSerializationRedisSerializer());
+        serializers.put("indented json", indentedJson(indentedMapper));
+        serializers.put("codec v1", new CacheValueCodec(new ObjectMapper(), 1024));
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("post (100k chars)", post(100_000));
+        values.put("post (2k chars)", post(2_000));
+        values.put("feed (50 summaries)", feed(50));
+
+        System.out.printf("%-22s %-22s %10s %12s %12s%n", "value", "serializer", "bytes", "encode us", "decode us");
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            for (Map.Entry<String, RedisSerializer<Object>> serializer : serializers.entrySet()) {
+                RedisSerializer<Object> codec = serializer.getValue();
+                byte[] encoded = codec.serialize(value.getValue());
+                Object decoded = codec.deserialize(encoded);
+                double encodeMicros = measure(value.getValue(), codec::serialize);
+                double decodeMicros = measure(encoded, codec::deserialize);
+                System.out.printf("%-22s %-22s %10d %12.1f %12.1f %s%n", value.getKey(), serializer.getKey(),
+                        encoded.length, encodeMicros, decodeMicros,
+                        value.getValue().equals(decoded) ? "" : "(decodes to " + decoded.getClass().getSimpleName() + ")");
+            }
+        }
+    }
+
+    private static <T> double measure(T input, Function<T, Object> operation) {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink = operation.apply(input);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink = operation.apply(input);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == null) {
+            throw new IllegalStateException("nothing was produced");
+        }
+        return elapsed / 1_000.0 / MEASURED_ROUNDS;
+    }
+
+    private static RedisSerializer<Object> indentedJson(ObjectMapper indentedMapper) {
+        return new Jackson2JsonRedisSerializer<>(indentedMapper, Object.class);
+    }
+
+    private static PostDto post(int contentLength) {
+        Random random = new Random(42);
+        String[] words = {"spring", "redis", "cache", "latency", "the", "a", "post", "reader", "content", "blog"};
+        StringBuilder content = new StringBuilder(contentLength);
+        while (content.length() < contentLength) {
+            content.append(words[random.nextInt(words.length)]).append(' ');
+        }
+        PostDto postDto = new PostDto();
+        postDto.setId(1L);
+        postDto.setPublisherID(7L);
+        postDto.setTitle("Caching in front of redis");
+        postDto.setDescription("How a near cache changes the read path");
+        postDto.setContent(content.substring(0, contentLength));
+        postDto.setTags(List.of("tech", "java"));
+        postDto.setPublishDate(new Date(1_700_000_000_000L));
+        postDto.setComments(new HashSet<>());
+        postDto.setLikesCount(120);
+        postDto.setPostSentiment("Positive");
+        postDto.setProfanityStatus("Active");
+        postDto.setNumOfReports(0L);
+        return postDto;
+    }
+
+    private static Set<PostSummaryDto> feed(int size) {
+        Set<PostSummaryDto> feed = new LinkedHashSet<>();
+        for (long id = 1; id <= size; id++) {
+            PostSummaryDto summary = new PostSummaryDto();
+            summary.setId(id);
+            summary.setPublisherID(id % 7);
+            summary.setTitle("Post number " + id);
+            summary.setDescription("A short description of post " + id);
+            summary.setTags(List.of("tech", "java"));
+            summary.setPublishDate(new Date(1_700_000_000_000L + id * 60_000));
+            summary.setLikesCount(id * 3);
+            summary.setPostSentiment("Neutral");
+            summary.setProfanityStatus("Active");
+            feed.add(summary);
+        }
+        return feed;
+    }
+}
@@ -0,0 +1,139 @@
+package com.springboot.blog.cache;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Redis going slow or down behind the two level caches: the circuit opens, reads fall through to
+ * the loader, writes are skipped and remembered, and once the circuit closes again the keys written
+ * during the outage are evicted so redis does not serve what it held before.
+ */
+class RedisOutageTest {
+
+    private static final String POSTS = "posts";
+    private static final long SLOW_CALL_MILLIS = 50;
+    private static final long OPEN_STATE_MILLIS = 200;
+
+    private StandInRedis redis;
+    private CircuitBreaker circuitBreaker;
+    private TwoLevelCacheManager cacheManager;
+    private RedisCacheHealthIndicator healthIndicator;
+    private Cache posts;
+
+    @BeforeEach
+    void setUp() {
+        redis = new StandInRedis(POSTS);
+        // same settings as RedisConfig on a smaller window
+        circuitBreaker = CircuitBreaker.of("redisCache", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .slowCallRateThreshold(50)
+                .slowCallDurationThreshold(Duration.ofMillis(SLOW_CALL_MILLIS))
+                .waitDurationInOpenState(Duration.ofMillis(OPEN_STATE_MILLIS))
+                .permittedNumberOfCallsInHalfOpenState(2)
+                .ignoreExceptions(SerializationException.class)
+                .build());
+        cacheManager = new TwoLevelCacheManager(redis, redis.channelTemplate(), circuitBreaker, 100,
+                "cache-invalidation", 100, 60_000, 1_000);
+        redis.subscribe(cacheManager);
+        healthIndicator = new RedisCacheHealthIndicator(cacheManager);
+        posts = cacheManager.getCache(POSTS);
+    }
+
+    @Test
+    void slowReadsOpenTheCircuitAndLaterReadsGoToTheLoader() {
+        redis.cache(POSTS).setLatencyMillis(2 * SLOW_CALL_MILLIS);
+        for (long postId = 1; postId <= 4; postId++) {
+            assertThat(posts.get(postId)).isNull();
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(healthIndicator.health().getStatus().getCode()).isEqualTo("DEGRADED");
+
+        int reads = redis.cache(POSTS).reads();
+        long start = System.nanoTime();
+        String post = posts.get(5L, () -> "from the database");
+
+        assertThat(post).isEqualTo("from the database");
+        assertThat(redis.cache(POSTS).reads()).isEqualTo(reads);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(SLOW_CALL_MILLIS));
+    }
+
+    @Test
+    void failingReadsAreMisses() {
+        redis.cache(POSTS).put(1L, "cached");
+        redis.setDown(true);
+
+        assertThat(posts.get(1L)).isNull();
+        assertThat(posts.get(1L, () -> "from the database")).isEqualTo("from the database");
+    }
+
+    @Test
+    void writesDuringAnOutageAreSkippedTrackedAndEvictedOnRecovery() throws InterruptedException {
+        for (long postId = 1; postId <= 5; postId++) {
+            redis.cache(POSTS).put(postId, "before the outage");
+        }
+        redis.setDown(true);
+
+        // failed writes open the circuit, the last ones are not even attempted
+        posts.put(1L, "updated");
+        posts.put(2L, "updated");
+        posts.evict(3L);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        posts.put(4L, "updated");
+        posts.evict(5L);
+
+        assertThat(redis.cache(POSTS).peek(1L)).isEqualTo("before the outage");
+        assertThat(cacheManager.missedWriteCounts()).isEqualTo(Map.of(POSTS, 5));
+        Health health = healthIndicator.health();
+        assertThat(health.getStatus()).isEqualTo(new Status("DEGRADED"));
+        assertThat(health.getDetails()).containsEntry("missedWrites", Map.of(POSTS, 5));
+
+        redis.setDown(false);
+        Thread.sleep(OPEN_STATE_MILLIS + 50);
+        // half open, two successful calls close the circuit
+        posts.get(10L);
+        posts.get(11L);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        for (long postId = 1; postId <= 5; postId++) {
+            assertThat(redis.cache(POSTS).peek(postId)).isNull();
+            assertThat(posts.get(postId)).isNull(); // local copies were dropped as well
+        }
+        assertThat(cacheManager.missedWriteCounts()).isEqualTo(Map.of(POSTS, 0));
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void tooManyMissedWritesClearTheCacheOnRecovery() throws InterruptedException {
+        TwoLevelCacheManager smallBuffer = new TwoLevelCacheManager(redis, redis.channelTemplate(), circuitBreaker, 2,
+                "cache-invalidation", 100, 60_000, 1_000);
+        Cache smallBufferPosts = smallBuffer.getCache(POSTS);
+        redis.cache(POSTS).put(9L, "never written during the outage");
+        redis.setDown(true);
+
+        for (long postId = 1; postId <= 4; postId++) {
+            smallBufferPosts.put(postId, "updated");
+        }
+        assertThat(smallBuffer.missedWriteCounts()).isEqualTo(Map.of(POSTS, -1));
+
+        redis.setDown(false);
+        Thread.sleep(OPEN_STATE_MILLIS + 50);
+        smallBufferPosts.get(10L);
+        smallBufferPosts.get(11L);
+
+        assertThat(redis.cache(POSTS).peek(9L)).isNull();
+        assertThat(smallBuffer.missedWriteCounts()).isEqualTo(Map.of(POSTS, 0));
+    }
+}
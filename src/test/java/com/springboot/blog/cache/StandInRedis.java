@@ -0,0 +1,85 @@
+package com.springboot.blog.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Redis stand-in shared by the cache managers of several simulated nodes: the caches they all read
+ * & write, and a pub/sub channel delivering every published message synchronously to every
+ * subscribed manager, the publisher included, like a redis channel does.
+ */
+class StandInRedis implements CacheManager {
+
+    private final Map<String, StandInRedisCache> caches = new ConcurrentHashMap<>();
+    private final List<TwoLevelCacheManager> subscribers = new CopyOnWriteArrayList<>();
+    private final List<String> publishedMessages = new CopyOnWriteArrayList<>();
+    private volatile boolean down;
+    private final StringRedisTemplate channelTemplate = new StringRedisTemplate() {
+        @Override
+        public Long convertAndSend(String channel, Object message) {
+            if (down) {
+                throw new RedisConnectionFailureException("stand-in redis is down");
+            }
+            String body = String.valueOf(message);
+            publishedMessages.add(body);
+            deliver(channel, body);
+            return (long) subscribers.size();
+        }
+    };
+
+    StandInRedis(String... cacheNames) {
+        for (String cacheName : cacheNames) {
+            caches.put(cacheName, new StandInRedisCache(cacheName));
+        }
+    }
+
+    StringRedisTemplate channelTemplate() {
+        return channelTemplate;
+    }
+
+    /** Every cache & the channel fail until redis is brought back up. */
+    void setDown(boolean down) {
+        this.down = down;
+        caches.values().forEach(cache -> cache.setFailing(down));
+    }
+
+    void subscribe(TwoLevelCacheManager cacheManager) {
+        subscribers.add(cacheManager);
+    }
+
+    List<String> publishedMessages() {
+        return publishedMessages;
+    }
+
+    /** Delivers a raw message on the channel, as if another process had published it. */
+    void deliver(String channel, String body) {
+        for (TwoLevelCacheManager subscriber : subscribers) {
+            subscriber.onMessage(new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8),
+                    body.getBytes(StandardCharsets.UTF_8)), null);
+        }
+    }
+
+    StandInRedisCache cache(String name) {
+        return caches.get(name);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.get(name);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return caches.keySet();
+    }
+}
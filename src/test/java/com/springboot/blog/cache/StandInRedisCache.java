@@ -0,0 +1,100 @@
+package com.springboot.blog.cache;
+
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stand-in for a redis cache shared by several nodes, with injectable latency & failures
+ * and a hook that runs in the middle of a read (after the call started, before the value is returned).
+ */
+class StandInRedisCache extends ConcurrentMapCache {
+
+    private volatile long latencyMillis;
+    private volatile boolean failing;
+    private volatile Runnable duringRead;
+    private final AtomicInteger reads = new AtomicInteger();
+
+    StandInRedisCache(String name) {
+        super(name, false);
+    }
+
+    void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    void setDuringRead(Runnable duringRead) {
+        this.duringRead = duringRead;
+    }
+
+    int reads() {
+        return reads.get();
+    }
+
+    /** The stored value without going through the injected latency or failures. */
+    Object peek(Object key) {
+        return super.lookup(key);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        reads.incrementAndGet();
+        simulateNetwork();
+        Object value = super.lookup(key);
+        Runnable hook = duringRead;
+        if (hook != null) {
+            duringRead = null;
+            hook.run();
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        simulateNetwork();
+        super.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        simulateNetwork();
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        simulateNetwork();
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        simulateNetwork();
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        simulateNetwork();
+        super.clear();
+    }
+
+    private void simulateNetwork() {
+        long latency = latencyMillis;
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failing) {
+            throw new RedisConnectionFailureException("stand-in redis is down");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.springboot.blog.cache;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes sharing one redis stand-in: its caches and its invalidation channel.
+ */
+class TwoLevelCacheManagerTest {
+
+    private static final String CHANNEL = "cache-invalidation";
+    private static final String POSTS = "posts";
+
+    private StandInRedis redis;
+    private TwoLevelCacheManager nodeA;
+    private TwoLevelCacheManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        redis = new StandInRedis(POSTS);
+        nodeA = node();
+        nodeB = node();
+    }
+
+    private TwoLevelCacheManager node() {
+        TwoLevelCacheManager node = new TwoLevelCacheManager(redis, redis.channelTemplate(),
+                CircuitBreaker.ofDefaults("redis"), 100, CHANNEL, 100, 60_000, 1_000);
+        redis.subscribe(node);
+        return node;
+    }
+
+    @Test
+    void putOnOneNodeDropsTheLocalCopyOfTheOther() {
+        Cache postsA = nodeA.getCache(POSTS);
+        Cache postsB = nodeB.getCache(POSTS);
+        postsA.put(1L, "v1");
+        assertThat(postsB.get(1L).get()).isEqualTo("v1"); // now held locally by B
+
+        postsA.put(1L, "v2");
+
+        assertThat(postsB.get(1L).get()).isEqualTo("v2");
+        assertThat(redis.publishedMessages()).allMatch(message -> message.endsWith("|" + POSTS + "|1"));
+    }
+
+    @Test
+    void evictAndClearReachTheOtherNode() {
+        Cache postsA = nodeA.getCache(POSTS);
+        Cache postsB = nodeB.getCache(POSTS);
+        postsA.put(1L, "one");
+        postsA.put(2L, "two");
+        postsA.put(3L, "three");
+        postsB.get(1L);
+        postsB.get(2L);
+        postsB.get(3L);
+
+        postsA.evict(1L);
+        assertThat(postsB.get(1L)).isNull();
+        assertThat(postsB.get(2L).get()).isEqualTo("two");
+
+        // clears redis & B's local entries, nothing would be left if B still served 2 & 3 locally
+        postsA.clear();
+        assertThat(postsB.get(2L)).isNull();
+        assertThat(postsB.get(3L)).isNull();
+    }
+
+    @Test
+    void ownMessagesAreIgnored() {
+        Cache postsA = nodeA.getCache(POSTS);
+        postsA.put(1L, "v1");
+        int reads = redis.cache(POSTS).reads();
+
+        // the channel echoed A's own eviction back to A, its fresh local copy must survive it
+        assertThat(postsA.get(1L).get()).isEqualTo("v1");
+        assertThat(redis.cache(POSTS).reads()).isEqualTo(reads);
+    }
+
+    @Test
+    void emptyKeyClearsTheWholeLocalCache() {
+        Cache postsB = nodeB.getCache(POSTS);
+        postsB.put(1L, "one");
+        postsB.put(2L, "two");
+        redis.cache(POSTS).clear(); // behind B's back, B keeps serving its local copies
+        assertThat(postsB.get(1L).get()).isEqualTo("one");
+
+        redis.deliver(CHANNEL, "other-node|" + POSTS + "|");
+
+        assertThat(postsB.get(1L)).isNull();
+        assertThat(postsB.get(2L)).isNull();
+    }
+
+    @Test
+    void keysMayContainTheSeparator() {
+        Cache postsB = nodeB.getCache(POSTS);
+        postsB.put("a|b", "piped");
+        postsB.put("a", "plain");
+        redis.cache(POSTS).clear();
+
+        redis.deliver(CHANNEL, "other-node|" + POSTS + "|a|b");
+
+        assertThat(postsB.get("a|b")).isNull();
+        assertThat(postsB.get("a").get()).isEqualTo("plain");
+    }
+
+    @Test
+    void malformedAndUnknownMessagesAreIgnored() {
+        Cache postsB = nodeB.getCache(POSTS);
+        postsB.put(1L, "v1");
+        redis.cache(POSTS).clear();
+
+        redis.deliver(CHANNEL, "");
+        redis.deliver(CHANNEL, "garbage");
+        redis.deliver(CHANNEL, "other-node|" + POSTS);
+        redis.deliver(CHANNEL, "other-node|unknown-cache|1");
+        redis.deliver(CHANNEL, "other-node|unknown-cache|");
+
+        assertThat(postsB.get(1L).get()).isEqualTo("v1");
+    }
+
+    @Test
+    void valueReadBeforeAConcurrentInvalidationIsNotKeptLocally() {
+        Cache postsA = nodeA.getCache(POSTS);
+        Cache postsB = nodeB.getCache(POSTS);
+        postsA.put(1L, "v1");
+        // A updates the post while B's read of the old value is still on the wire
+        redis.cache(POSTS).setDuringRead(() -> postsA.put(1L, "v2"));
+
+        assertThat(postsB.get(1L).get()).isEqualTo("v1");
+
+        assertThat(postsB.get(1L).get()).isEqualTo("v2");
+    }
+
+    @Test
+    void valueLoadedBeforeAConcurrentInvalidationIsNotKeptLocally() {
+        Cache postsA = nodeA.getCache(POSTS);
+        Cache postsB = nodeB.getCache(POSTS);
+
+        String loaded = postsB.get(1L, () -> {
+            // A writes the post while B is still loading it from the database
+            postsA.put(1L, "v2");
+            return "v1";
+        });
+
+        assertThat(loaded).isEqualTo("v1");
+        int reads = redis.cache(POSTS).reads();
+        postsB.get(1L);
+        assertThat(redis.cache(POSTS).reads()).isEqualTo(reads + 1);
+    }
+
+    @Test
+    void remoteCacheKeepsNothingLocallyAndPublishesNothing() {
+        Cache remotePosts = nodeA.getRemoteCache(POSTS);
+        remotePosts.put(1L, "v1");
+        assertThat(remotePosts.get(1L).get()).isEqualTo("v1");
+
+        redis.cache(POSTS).put(1L, "v2");
+
+        assertThat(remotePosts.get(1L).get()).isEqualTo("v2");
+        assertThat(redis.publishedMessages()).isEmpty();
+        assertThat(nodeA.getRemoteCache("unknown-cache")).isNull();
+    }
+}
@@ -0,0 +1,129 @@
+package com.springboot.blog.cache;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Concurrent misses of one key going through {@code get(key, loader)}, i.e. {@code @Cacheable(sync = true)}.
+ */
+class TwoLevelCacheTest {
+
+    private static final String POSTS = "posts";
+    private static final long LOAD_TIMEOUT_MILLIS = 5_000;
+    private static final int CALLERS = 5;
+    // time given to the other callers to reach the in-flight load
+    private static final long CALLERS_WAITING_MILLIS = 200;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch releaseLoad = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        releaseLoad.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        Cache posts = cache(LOAD_TIMEOUT_MILLIS);
+        List<Future<String>> results = callConcurrently(() -> posts.get(1L, () -> {
+            loads.incrementAndGet();
+            releaseLoad.await();
+            return "from the database";
+        }));
+
+        for (Future<String> result : results) {
+            assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("from the database");
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void failedLoadFailsEveryWaiter() throws Exception {
+        Cache posts = cache(LOAD_TIMEOUT_MILLIS);
+        List<Future<String>> results = callConcurrently(() -> posts.get(1L, () -> {
+            loads.incrementAndGet();
+            releaseLoad.await();
+            throw new IllegalStateException("database is down");
+        }));
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(Cache.ValueRetrievalException.class)
+                    .hasRootCauseMessage("database is down");
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void errorInTheLoaderReleasesEveryWaiterAtOnce() throws Exception {
+        Cache posts = cache(LOAD_TIMEOUT_MILLIS);
+        List<Future<String>> results = callConcurrently(() -> posts.get(1L, () -> {
+            loads.incrementAndGet();
+            releaseLoad.await();
+            throw new StackOverflowError();
+        }));
+
+        long start = System.nanoTime();
+        for (Future<String> result : results) {
+            // not the 503 of a waiter that ran into the load timeout
+            assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(StackOverflowError.class);
+        }
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(LOAD_TIMEOUT_MILLIS));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void overdueLoadIsTakenOver() throws Exception {
+        Cache posts = cache(CALLERS_WAITING_MILLIS);
+        Future<String> stuckLoad = callers.submit(() -> posts.get(1L, () -> {
+            loads.incrementAndGet();
+            releaseLoad.await();
+            return "stale";
+        }));
+        Thread.sleep(2 * CALLERS_WAITING_MILLIS);
+
+        String value = posts.get(1L, () -> {
+            loads.incrementAndGet();
+            return "fresh";
+        });
+
+        assertThat(value).isEqualTo("fresh");
+        assertThat(loads).hasValue(2);
+        releaseLoad.countDown();
+        assertThat(stuckLoad.get(1, TimeUnit.SECONDS)).isEqualTo("stale");
+    }
+
+    private Cache cache(long loadTimeoutMillis) {
+        StandInRedis redis = new StandInRedis(POSTS);
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redis, redis.channelTemplate(),
+                CircuitBreaker.ofDefaults("redis"), 100, "cache-invalidation", 100, 60_000, loadTimeoutMillis);
+        return cacheManager.getCache(POSTS);
+    }
+
+    // every caller misses, the load is released once they all had the time to wait for it
+    private List<Future<String>> callConcurrently(Callable<String> call) throws InterruptedException {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(call));
+        }
+        Thread.sleep(CALLERS_WAITING_MILLIS);
+        releaseLoad.countDown();
+        return results;
+    }
+}
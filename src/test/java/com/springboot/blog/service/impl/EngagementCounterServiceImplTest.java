@@ -0,0 +1,148 @@
+package com.springboot.blog.service.impl;
+
+import com.springboot.blog.service.ReputationService;
+import com.springboot.blog.utils.AppEnums.CacheEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EngagementCounterServiceImplTest {
+
+    private static final long POST_ID = 1L;
+    private static final long PUBLISHER_ID = 7L;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private ReputationService reputationService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private Cache postsCache;
+    @InjectMocks
+    private EngagementCounterServiceImpl engagementCounterService;
+
+    // (user, post) rows already in the join tables, INSERT IGNORE skips them
+    private final Set<List<Object>> storedRows = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(jdbcTemplate.batchUpdate(startsWith("INSERT IGNORE"), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            int[] updateCounts = new int[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                updateCounts[i] = storedRows.add(List.of(rows.get(i))) ? 1 : 0;
+            }
+            return updateCounts;
+        });
+        lenient().when(cacheManager.getCache(CacheEnum.POSTS)).thenReturn(postsCache);
+    }
+
+    @Test
+    void likesAlreadyInTheJoinTableAreNotCounted() {
+        storedRows.add(List.of(10L, POST_ID)); // e.g. recorded by another node
+        engagementCounterService.recordLike(POST_ID, PUBLISHER_ID, 10L);
+        engagementCounterService.recordLike(POST_ID, PUBLISHER_ID, 11L);
+        engagementCounterService.recordShare(POST_ID, PUBLISHER_ID, 10L);
+
+        engagementCounterService.flush();
+
+        assertThat(counterUpdates()).containsExactly(List.of(1L, 1L, 0L, POST_ID));
+        verify(reputationService).recordEngagement(PUBLISHER_ID, 1, 1, 0);
+        verify(postsCache).evict(POST_ID);
+        assertThat(engagementCounterService.isLikePending(POST_ID, 11L)).isFalse();
+    }
+
+    @Test
+    void rowsInsertedWithoutAnUpdateCountAreCounted() {
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT IGNORE INTO reported_posts"), anyList()))
+                .thenReturn(new int[]{Statement.SUCCESS_NO_INFO});
+        engagementCounterService.recordReport(POST_ID, 10L);
+
+        engagementCounterService.flush();
+
+        assertThat(counterUpdates()).containsExactly(List.of(0L, 0L, 1L, POST_ID));
+        // reports do not feed the reputation
+        verify(reputationService, never()).recordEngagement(anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void failedFlushKeepsEverythingForTheNextRun() {
+        engagementCounterService.recordLike(POST_ID, PUBLISHER_ID, 10L);
+        engagementCounterService.recordShare(POST_ID, PUBLISHER_ID, 10L);
+        doThrow(new DataAccessResourceFailureException("database is down")).when(transactionTemplate).execute(any());
+
+        engagementCounterService.flush();
+
+        assertThat(engagementCounterService.isLikePending(POST_ID, 10L)).isTrue();
+        assertThat(engagementCounterService.pendingSharesOf(10L)).containsExactly(POST_ID);
+        verifyNoInteractions(reputationService, postsCache);
+
+        reset(transactionTemplate);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        engagementCounterService.recordShare(POST_ID, PUBLISHER_ID, 11L);
+        engagementCounterService.flush();
+
+        // the restored share is counted once, next to the new one
+        assertThat(counterUpdates()).containsExactly(List.of(1L, 2L, 0L, POST_ID));
+        verify(reputationService).recordEngagement(PUBLISHER_ID, 1, 2, 0);
+        assertThat(engagementCounterService.isLikePending(POST_ID, 10L)).isFalse();
+    }
+
+    @Test
+    void secondLikeOfAPendingRowIsRefused() {
+        assertThat(engagementCounterService.recordLike(POST_ID, PUBLISHER_ID, 10L)).isTrue();
+        assertThat(engagementCounterService.recordLike(POST_ID, PUBLISHER_ID, 10L)).isFalse();
+        assertThat(engagementCounterService.recordReport(POST_ID, 10L)).isTrue();
+        assertThat(engagementCounterService.recordReport(POST_ID, 10L)).isFalse();
+    }
+
+    @Test
+    void engagementRecordedAfterAFlushWaitsForTheNextOne() {
+        engagementCounterService.recordShare(POST_ID, PUBLISHER_ID, 10L);
+        engagementCounterService.flush();
+        engagementCounterService.recordShare(POST_ID, PUBLISHER_ID, 11L);
+        engagementCounterService.flush();
+
+        assertThat(counterUpdates()).containsExactly(List.of(0L, 1L, 0L, POST_ID), List.of(0L, 1L, 0L, POST_ID));
+    }
+
+    @Test
+    void nothingPendingTouchesNothing() {
+        engagementCounterService.flush();
+
+        verifyNoInteractions(jdbcTemplate, transactionTemplate, reputationService, cacheManager);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object>> counterUpdates() {
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(startsWith("UPDATE posts"), updates.capture());
+        return updates.getAllValues().stream().flatMap(List::stream).map(List::of).toList();
+    }
+}
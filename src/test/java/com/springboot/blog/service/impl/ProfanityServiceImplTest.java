@@ -0,0 +1,83 @@
+package com.springboot.blog.service.impl;
+
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.entity.UserEntity;
+import com.springboot.blog.repository.PostRepository;
+import com.springboot.blog.service.NowTrendingService;
+import com.springboot.blog.utils.AppEnums.ProfanityStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProfanityServiceImplTest {
+
+    private static final long PUBLISHER_ID = 7L;
+
+    @Mock
+    private PostRepository postRepository;
+    @Mock
+    private ReputationServiceImpl reputationService;
+    @Mock
+    private NowTrendingService nowTrendingService;
+    @InjectMocks
+    private ProfanityServiceImpl profanityService;
+
+    @Test
+    void blockedPostStaysBlockedWhenRemoderated() throws Exception {
+        when(reputationService.reputationScore(anyLong())).thenReturn(0.0);
+        Post post = post("this damn post is shit and damn shit all over the place");
+
+        profanityService.profanityMarker(post);
+        assertThat(post.getProfanityStatus()).isEqualTo(ProfanityStatus.BLOCKED);
+        assertThat(post.getContent()).doesNotContain("damn", "shit");
+
+        // a word bank or threshold bump makes the stored stamp stale, the content is already masked
+        post.setModerationStamp("stale");
+        List<Post> visible = profanityService.filterPostProfanity(List.of(post));
+        assertThat(post.getProfanityStatus()).isEqualTo(ProfanityStatus.BLOCKED);
+        assertThat(visible).isEmpty();
+
+        post.setModerationStamp(null);
+        visible = profanityService.filterPostProfanity(List.of(post));
+        assertThat(post.getProfanityStatus()).isEqualTo(ProfanityStatus.BLOCKED);
+        assertThat(post.getModerationStamp()).isEqualTo(profanityService.currentModerationStamp());
+        assertThat(visible).isEmpty();
+        // the publisher's blocked count is left as it was
+        verify(reputationService, times(2))
+                .recordModerationVerdict(PUBLISHER_ID, ProfanityStatus.BLOCKED, ProfanityStatus.BLOCKED);
+        verify(nowTrendingService, never()).recordPostPublished(post);
+    }
+
+    @Test
+    void activePostIsBlockedWhenRemoderationFindsProfanity() throws Exception {
+        Post post = post("this damn post is shit and damn shit all over the place");
+        post.setProfanityStatus(ProfanityStatus.ACTIVE);
+        post.setModerationStamp("stale");
+
+        List<Post> visible = profanityService.filterPostProfanity(List.of(post));
+
+        assertThat(post.getProfanityStatus()).isEqualTo(ProfanityStatus.BLOCKED);
+        assertThat(visible).isEmpty();
+        verify(reputationService).recordModerationVerdict(PUBLISHER_ID, ProfanityStatus.ACTIVE, ProfanityStatus.BLOCKED);
+    }
+
+    private static Post post(String content) {
+        UserEntity publisher = new UserEntity();
+        publisher.setId(PUBLISHER_ID);
+        Post post = new Post();
+        post.setId(1L);
+        post.setContent(content);
+        post.setPostSentiment("Negative");
+        post.setPublisherID(publisher);
+        return post;
+    }
+}
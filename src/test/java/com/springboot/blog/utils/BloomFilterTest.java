@@ -0,0 +1,95 @@
+package com.springboot.blog.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    private static final int KEYS = 10_000;
+    private static final int PROBES = 100_000;
+
+    @Test
+    void addedKeysAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(KEYS, 0.01);
+        for (long key = 1; key <= KEYS; key++) {
+            filter.add(key);
+        }
+
+        for (long key = 1; key <= KEYS; key++) {
+            assertThat(filter.mightContain(key)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateMatchesTheSizing() {
+        // sequential ids, like the user & post ids the filters hold
+        assertThat(falsePositiveRate(new BloomFilter(KEYS, 0.01), KEYS)).isBetween(0.005, 0.015);
+        assertThat(falsePositiveRate(new BloomFilter(KEYS, 0.001), KEYS)).isLessThan(0.002);
+    }
+
+    @Test
+    void overfilledFilterLosesItsPrecision() {
+        assertThat(falsePositiveRate(new BloomFilter(KEYS, 0.01), 10 * KEYS)).isGreaterThan(0.3);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+
+        assertThat(filter.mightContain(0)).isFalse();
+        assertThat(filter.mightContain(Long.MAX_VALUE)).isFalse();
+        filter.add(Long.MIN_VALUE);
+        assertThat(filter.mightContain(Long.MIN_VALUE)).isTrue();
+    }
+
+    @Test
+    void concurrentAddsAreNotLost() {
+        // few words, so the threads keep setting bits of the same words
+        BloomFilter filter = new BloomFilter(1_000, 0.1);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> adders = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            long first = thread * 1_000L;
+            adders.add(CompletableFuture.runAsync(() -> {
+                awaitQuietly(start);
+                for (long key = first; key < first + 1_000; key++) {
+                    filter.add(key);
+                }
+            }));
+        }
+        start.countDown();
+        CompletableFuture.allOf(adders.toArray(new CompletableFuture[0])).join();
+
+        for (long key = 0; key < threads * 1_000L; key++) {
+            assertThat(filter.mightContain(key)).isTrue();
+        }
+    }
+
+    private static double falsePositiveRate(BloomFilter filter, int insertions) {
+        for (long key = 0; key < insertions; key++) {
+            filter.add(key);
+        }
+        int falsePositives = 0;
+        for (long key = insertions; key < insertions + PROBES; key++) {
+            if (filter.mightContain(key)) {
+                falsePositives++;
+            }
+        }
+        return (double) falsePositives / PROBES;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
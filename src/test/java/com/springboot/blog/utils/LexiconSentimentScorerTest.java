@@ -0,0 +1,46 @@
+package com.springboot.blog.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LexiconSentimentScorerTest {
+
+    private final LexiconSentimentScorer scorer = new LexiconSentimentScorer(Map.of(
+            "wonderful", 3, "brilliant", 3, "good", 2, "awful", -3, "terrible", -3, "boring", -2), 0.5);
+
+    @Test
+    void strongOpinionsGetPlainLabels() {
+        // moderation only has thresholds for the plain labels, a "Very" verdict would always pass
+        assertThat(scorer.score(words("this is absolutely wonderful and brilliant")).getSentiment())
+                .isEqualTo("Positive");
+        assertThat(scorer.score(words("an awful , terrible and really boring post")).getSentiment())
+                .isEqualTo("Negative");
+    }
+
+    @Test
+    void negatedOrMixedOpinionsAreLeftToTheParser() {
+        assertThat(scorer.score(words("this is not good")).getSentiment()).isNull();
+        assertThat(scorer.score(words("wonderful pictures but terrible writing")).getSentiment()).isNull();
+    }
+
+    @Test
+    void textWithoutLexiconWordsIsLeftToTheParser() {
+        LexiconSentimentScorer.Score score = scorer.score(words("this covers version 3 of the library"));
+
+        assertThat(score.getSentiment()).isNull();
+        assertThat(score.getHits()).isZero();
+    }
+
+    @Test
+    void wordsAreMatchedCaseInsensitively() {
+        assertThat(scorer.score(words("WONDERFUL and Brilliant")).getSentiment()).isEqualTo("Positive");
+    }
+
+    private static List<String> words(String text) {
+        return List.of(text.split(" "));
+    }
+}
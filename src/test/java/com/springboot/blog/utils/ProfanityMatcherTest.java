@@ -0,0 +1,72 @@
+package com.springboot.blog.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfanityMatcherTest {
+
+    private final ProfanityMatcher matcher = new ProfanityMatcher(List.of("ass", "darn", "darn it", "it all", "heck"));
+
+    @Test
+    void masksWholeWordsCaseInsensitively() {
+        ProfanityMatcher.Result result = matcher.mask("Well DARN, what the Heck");
+
+        assertThat(result.getMaskedText()).isEqualTo("Well ****, what the ****");
+        assertThat(result.getProfanityCount()).isEqualTo(2);
+        assertThat(result.getWordCount()).isEqualTo(5);
+    }
+
+    @Test
+    void ignoresMatchesGluedToLettersOrDigits() {
+        ProfanityMatcher.Result result = matcher.mask("a class on assets, heck2 and darned pass");
+
+        assertThat(result.getMaskedText()).isEqualTo("a class on assets, heck2 and darned pass");
+        assertThat(result.getProfanityCount()).isZero();
+    }
+
+    @Test
+    void matchesAtTheBoundariesOfTheText() {
+        ProfanityMatcher.Result result = matcher.mask("ass and more ass");
+
+        assertThat(result.getMaskedText()).isEqualTo("**** and more ****");
+        assertThat(result.getProfanityCount()).isEqualTo(2);
+    }
+
+    @Test
+    void matchesPhrasesAcrossRepeatedWhitespace() {
+        ProfanityMatcher.Result result = matcher.mask("oh darn \t\n it");
+
+        assertThat(result.getMaskedText()).isEqualTo("oh ****");
+        assertThat(result.getProfanityCount()).isEqualTo(1);
+        assertThat(result.getWordCount()).isEqualTo(3);
+    }
+
+    @Test
+    void mergesOverlappingMatchesIntoOneSpan() {
+        // "darn it" and "it all" overlap on "it", "darn" is swallowed by "darn it"
+        ProfanityMatcher.Result result = matcher.mask("darn it all today");
+
+        assertThat(result.getMaskedText()).isEqualTo("**** today");
+        assertThat(result.getProfanityCount()).isEqualTo(1);
+    }
+
+    @Test
+    void leavesCleanTextUntouched() {
+        ProfanityMatcher.Result result = matcher.mask("a perfectly polite sentence");
+
+        assertThat(result.getMaskedText()).isEqualTo("a perfectly polite sentence");
+        assertThat(result.getProfanityCount()).isZero();
+        assertThat(result.getWordCount()).isEqualTo(4);
+    }
+
+    @Test
+    void matchesExactlyOnlyWholeEntries() {
+        assertThat(matcher.matchesExactly("Darn It")).isTrue();
+        assertThat(matcher.matchesExactly("darn")).isTrue();
+        assertThat(matcher.matchesExactly("dar")).isFalse();
+        assertThat(matcher.matchesExactly("darn it all")).isFalse();
+    }
+}
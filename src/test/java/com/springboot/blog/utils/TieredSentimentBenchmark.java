@@ -0,0 +1,190 @@
+package com.springboot.blog.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+import edu.stanford.nlp.sentiment.SentimentCoreAnnotations;
+import edu.stanford.nlp.util.CoreMap;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Compares the parse based sentiment model alone with the tiered classification (lexicon first,
+ * parser only when the lexicon is not confident). Pass a text file with one post per line to measure on
+ * real posts; without one a generated corpus of post openings is used (clear praise & complaints,
+ * negated and mixed opinions and plain statements). The generated corpus is built from the lexicon's own
+ * words, so it flatters the lexicon: its numbers say nothing about real posts, measure on an export of
+ * real posts before enabling {@code sentiment.lexicon.enabled}.
+ * Not part of the test suite, run its main method after {@code mvn test-compile}; loading the
+ * CoreNLP models takes a while and needs a few GB of heap.
+ *
+ * The parser's labels are the reference: for every minimum confidence the table shows the share of
+ * texts the lexicon answered, how many of those answers match the parser exactly or in polarity, and
+ * the throughput of the tiered path against the parser alone.
+ */
+public class TieredSentimentBenchmark {
+
+    private static final int CORPUS_SIZE = 200;
+    private static final int MEASURED_ROUNDS = 3;
+    private static final double[] MIN_CONFIDENCES = {0.3, 0.4, 0.5, 0.6, 0.7};
+
+    private static final String[] SUBJECTS = {"This article", "The tutorial", "Your post", "This recipe", "The review",
+            "This guide", "The new release", "This explanation"};
+    private static final String[] PRAISE = {"is absolutely wonderful", "is excellent and really helpful",
+            "was amazing, I loved every part of it", "is brilliant", "is a fantastic read", "is great and so useful",
+            "is beautiful and inspiring", "was a delightful surprise"};
+    private static final String[] COMPLAINTS = {"is terrible", "was a complete waste of time", "is awful and useless",
+            "is the worst thing I have read", "is boring and confusing", "was disappointing and full of mistakes",
+            "is horrible", "is a pathetic mess"};
+    private static final String[] NEGATED = {"is not good", "was not helpful at all", "is not bad", "never gets boring",
+            "is not the worst"};
+    private static final String[] MIXED = {"is great but the examples are broken", "was slow but worth it",
+            "is boring, however the ending is excellent", "has nice pictures but terrible writing"};
+    private static final String[] STATEMENTS = {"covers version 3 of the library", "was published on Monday",
+            "describes how the cache works", "lists the steps to install the tool", "explains the new API"};
+    private static final String[] FOLLOW_UPS = {"", " I read it twice on my way to work.",
+            " The second part goes into the details of the configuration.",
+            " Comments and questions are welcome below."};
+
+    public static void main(String[] args) throws IOException {
+        Map<String, Integer> lexicon;
+        try (InputStream json = new ClassPathResource("sentiment_lexicon.json").getInputStream()) {
+            lexicon = new ObjectMapper().readValue(json, new TypeReference<>() {});
+        }
+        Properties tokenizerProps = new Properties();
+        tokenizerProps.setProperty("annotators", "tokenize, ssplit");
+        Properties parserProps = new Properties();
+        parserProps.setProperty("annotators", "parse, sentiment");
+        parserProps.setProperty("enforceRequirements", "false");
+        StanfordCoreNLP tokenizer = new StanfordCoreNLP(tokenizerProps);
+        StanfordCoreNLP parser = new StanfordCoreNLP(parserProps);
+
+        List<String> corpus = args.length > 0 ? posts(Path.of(args[0])) : corpus(new Random(42));
+        // reference labels, also warms the models up
+        List<String> parserLabels = new ArrayList<>();
+        for (String text : corpus) {
+            Annotation annotation = tokenize(tokenizer, text);
+            parserLabels.add(parse(parser, annotation));
+        }
+
+        double parserDocsPerSecond = docsPerSecond(corpus, text -> parse(parser, tokenize(tokenizer, text)));
+        System.out.printf("parser only: %.0f docs/s%n%n", parserDocsPerSecond);
+
+        System.out.printf("%-15s %14s %10s %10s %10s %12s %10s%n", "min confidence", "lexicon share",
+                "exact", "polarity", "disagree", "tiered docs/s", "speedup");
+        for (double minConfidence : MIN_CONFIDENCES) {
+            LexiconSentimentScorer scorer = new LexiconSentimentScorer(lexicon, minConfidence);
+            int answered = 0;
+            int exact = 0;
+            int polarity = 0;
+            for (int i = 0; i < corpus.size(); i++) {
+                String sentiment = scorer.score(firstSentenceWords(tokenize(tokenizer, corpus.get(i)))).getSentiment();
+                if (sentiment == null) {
+                    continue;
+                }
+                answered++;
+                String reference = parserLabels.get(i);
+                if (sentiment.equals(reference)) {
+                    exact++;
+                } else if (reference.endsWith(sentiment)) {
+                    polarity++;
+                }
+            }
+
+            double tieredDocsPerSecond = docsPerSecond(corpus, text -> {
+                Annotation annotation = tokenize(tokenizer, text);
+                if (scorer.score(firstSentenceWords(annotation)).getSentiment() == null) {
+                    parse(parser, annotation);
+                }
+            });
+            System.out.printf("%-15.2f %13.1f%% %9.1f%% %9.1f%% %9.1f%% %12.0f %9.1fx%n", minConfidence,
+                    100.0 * answered / corpus.size(), percent(exact, answered), percent(polarity, answered),
+                    percent(answered - exact - polarity, answered), tieredDocsPerSecond,
+                    tieredDocsPerSecond / parserDocsPerSecond);
+        }
+    }
+
+    // best of a few rounds, a single round is easily skewed by gc pauses
+    private static double docsPerSecond(List<String> corpus, Consumer<String> classification) {
+        double best = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            corpus.forEach(classification);
+            best = Math.max(best, corpus.size() / ((System.nanoTime() - start) / 1e9));
+        }
+        return best;
+    }
+
+    private static List<String> corpus(Random random) {
+        String[][] opinions = {PRAISE, PRAISE, COMPLAINTS, COMPLAINTS, NEGATED, MIXED, STATEMENTS, STATEMENTS};
+        List<String> corpus = new ArrayList<>();
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            String[] opinion = opinions[random.nextInt(opinions.length)];
+            corpus.add(pick(random, SUBJECTS) + " " + pick(random, opinion) + "." + pick(random, FOLLOW_UPS));
+        }
+        return corpus;
+    }
+
+    private static List<String> posts(Path file) throws IOException {
+        List<String> posts = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            if (!line.isBlank()) {
+                posts.add(line);
+            }
+        }
+        return posts;
+    }
+
+    private static String pick(Random random, String[] options) {
+        return options[random.nextInt(options.length)];
+    }
+
+    private static double percent(int count, int total) {
+        return total == 0 ? 0 : 100.0 * count / total;
+    }
+
+    private static Annotation tokenize(StanfordCoreNLP tokenizer, String text) {
+        Annotation annotation = new Annotation(text);
+        tokenizer.annotate(annotation);
+        return annotation;
+    }
+
+    private static List<String> firstSentenceWords(Annotation annotation) {
+        List<String> words = new ArrayList<>();
+        for (CoreLabel token : firstSentence(annotation).get(CoreAnnotations.TokensAnnotation.class)) {
+            words.add(token.word());
+        }
+        return words;
+    }
+
+    private static CoreMap firstSentence(Annotation annotation) {
+        return annotation.get(CoreAnnotations.SentencesAnnotation.class).get(0);
+    }
+
+    // same as the service: only the first sentence is parsed
+    private static String parse(StanfordCoreNLP parser, Annotation annotation) {
+        CoreMap sentence = firstSentence(annotation);
+        Annotation firstSentenceOnly = new Annotation(annotation.get(CoreAnnotations.TextAnnotation.class));
+        firstSentenceOnly.set(CoreAnnotations.TokensAnnotation.class, sentence.get(CoreAnnotations.TokensAnnotation.class));
+        firstSentenceOnly.set(CoreAnnotations.SentencesAnnotation.class, List.of(sentence));
+        parser.annotate(firstSentenceOnly);
+        String sentiment = sentence.get(SentimentCoreAnnotations.SentimentClass.class);
+        // same labels as SentimentAnalysisService.mapSentiment
+        return switch (sentiment.toLowerCase()) {
+            case "very negative" -> "Very Negative";
+            case "negative" -> "Negative";
+            case "positive" -> "Positive";
+            case "very positive" -> "Very Positive";
+            default -> "Neutral";
+        };
+    }
+}
@@ -0,0 +1,142 @@
+package com.springboot.blog.utils;
+
+import com.springboot.blog.payload.PostSummaryDto;
+import com.springboot.blog.utils.TrendingEngine.Window;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrendingEngineTest {
+
+    // noon, so an engagement's day & hour boundaries are easy to tell apart
+    private static final long NOW = Instant.parse("2024-03-10T12:00:00Z").toEpochMilli();
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    private final TrendingEngine engine = new TrendingEngine(ZoneOffset.UTC, TrendingEngineTest::copy);
+
+    @Test
+    void ranksByLikesThenSharesThenComments() {
+        engine.upsert(post(1, NOW, 5, 0, 9), NOW);
+        engine.upsert(post(2, NOW, 5, 2, 0), NOW);
+        engine.upsert(post(3, NOW, 9, 0, 0), NOW);
+        engine.upsert(post(4, NOW, 5, 2, 1), NOW);
+
+        assertThat(ids(engine.top(Window.DAILY, 10, NOW))).containsExactly(3L, 4L, 2L, 1L);
+        assertThat(ids(engine.top(Window.DAILY, 2, NOW))).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void engagementLeavesTheDailyWindowAfter24HoursAndTheWeeklyAfter7Days() {
+        // published before the weekly window, only its engagement can place it in one
+        engine.upsert(post(1, NOW - 10 * DAY, 0, 0, 0), NOW);
+        engine.addEngagement(1, 3, 0, 0, NOW);
+
+        assertThat(ids(engine.top(Window.DAILY, 10, NOW))).containsExactly(1L);
+        engine.expire(NOW + 23 * HOUR);
+        assertThat(ids(engine.top(Window.DAILY, 10, NOW + 23 * HOUR))).containsExactly(1L);
+        engine.expire(NOW + 24 * HOUR);
+        assertThat(engine.top(Window.DAILY, 10, NOW + 24 * HOUR)).isEmpty();
+
+        // compacted into its day, which leaves the weekly window when the 7th day after it starts
+        long seventhMidnight = Instant.parse("2024-03-17T00:00:00Z").toEpochMilli();
+        engine.expire(seventhMidnight - HOUR);
+        assertThat(ids(engine.top(Window.WEEKLY, 10, seventhMidnight - HOUR))).containsExactly(1L);
+        engine.expire(seventhMidnight);
+        assertThat(engine.top(Window.WEEKLY, 10, seventhMidnight)).isEmpty();
+        assertThat(ids(engine.top(Window.MONTHLY, 10, seventhMidnight))).containsExactly(1L);
+        // lifetime counters are reported whatever the window
+        assertThat(engine.top(Window.MONTHLY, 1, seventhMidnight).get(0).getLikesCount()).isEqualTo(3);
+    }
+
+    @Test
+    void readsDoNotRollTheWindowsOnlyWritesAndExpireDo() {
+        engine.upsert(post(1, NOW - 10 * DAY, 0, 0, 0), NOW);
+        engine.addEngagement(1, 3, 0, 0, NOW);
+
+        assertThat(ids(engine.top(Window.DAILY, 10, NOW + 2 * DAY))).containsExactly(1L);
+        engine.expire(NOW + 2 * DAY);
+        assertThat(engine.top(Window.DAILY, 10, NOW + 2 * DAY)).isEmpty();
+    }
+
+    @Test
+    void newPostsBelongToTheWindowsTheyWerePublishedIn() {
+        engine.upsert(post(1, NOW, 0, 0, 0), NOW);
+
+        assertThat(ids(engine.top(Window.DAILY, 10, NOW))).containsExactly(1L);
+        engine.expire(NOW + 2 * DAY);
+        assertThat(engine.top(Window.DAILY, 10, NOW + 2 * DAY)).isEmpty();
+        assertThat(ids(engine.top(Window.WEEKLY, 10, NOW + 2 * DAY))).containsExactly(1L);
+    }
+
+    @Test
+    void growthSeenInASnapshotCountsForTheCurrentHour() {
+        // counters of a post seen for the first time are booked at its publish time
+        engine.upsert(post(1, NOW - 3 * DAY, 2, 0, 0), NOW);
+        engine.upsert(post(2, NOW - 3 * DAY, 0, 0, 0), NOW);
+        engine.addEngagement(2, 4, 0, 0, NOW);
+        assertThat(ids(engine.top(Window.DAILY, 10, NOW))).containsExactly(2L);
+
+        // another node recorded 3 more likes
+        engine.upsert(post(1, NOW - 3 * DAY, 5, 0, 0), NOW + HOUR);
+
+        // 3 likes today against 4, but 5 likes this week against 4
+        assertThat(ids(engine.top(Window.DAILY, 10, NOW + HOUR))).containsExactly(2L, 1L);
+        assertThat(ids(engine.top(Window.WEEKLY, 10, NOW + HOUR))).containsExactly(1L, 2L);
+        assertThat(engine.top(Window.DAILY, 10, NOW + HOUR).get(1).getLikesCount()).isEqualTo(5);
+    }
+
+    @Test
+    void postsOlderThanTheMonthlyWindowAreDropped() {
+        engine.upsert(post(1, NOW - 10 * DAY, 1, 0, 0), NOW);
+        engine.upsert(post(2, NOW - 40 * DAY, 100, 0, 0), NOW);
+        assertThat(engine.size()).isEqualTo(1);
+
+        engine.expire(NOW + 21 * DAY);
+
+        assertThat(engine.size()).isZero();
+        assertThat(engine.top(Window.MONTHLY, 10, NOW + 21 * DAY)).isEmpty();
+    }
+
+    @Test
+    void reloadDropsPostsMissingFromTheDatabase() {
+        engine.upsert(post(1, NOW, 1, 0, 0), NOW);
+        engine.upsert(post(2, NOW, 2, 0, 0), NOW);
+
+        engine.reload(List.of(post(2, NOW, 2, 0, 0), post(3, NOW, 3, 0, 0)), NOW);
+
+        assertThat(ids(engine.top(Window.DAILY, 10, NOW))).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void engagementOfUntrackedPostsIsIgnored() {
+        engine.addEngagement(42, 10, 0, 0, NOW);
+
+        assertThat(engine.size()).isZero();
+    }
+
+    private static PostSummaryDto post(long id, long publishTime, long likes, long shares, long comments) {
+        PostSummaryDto post = new PostSummaryDto();
+        post.setId(id);
+        post.setPublishDate(new Date(publishTime));
+        post.setLikesCount(likes);
+        post.setShareCount(shares);
+        post.setCommentCount(comments);
+        return post;
+    }
+
+    private static PostSummaryDto copy(PostSummaryDto post) {
+        return post(post.getId(), post.getPublishDate().getTime(), post.getLikesCount(), post.getShareCount(),
+                post.getCommentCount());
+    }
+
+    private static List<Long> ids(List<PostSummaryDto> posts) {
+        return posts.stream().map(PostSummaryDto::getId).toList();
+    }
+}